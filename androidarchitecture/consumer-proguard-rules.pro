@@ -0,0 +1,3 @@
+# Generated action dispatchers are loaded by name from the view model class
+-keep class * implements sysdata.it.androidarchitecture.viewmodel.ActionDispatcher { <init>(); }
+-keepnames class * extends sysdata.it.androidarchitecture.viewmodel.BaseArchitectureViewModel
@@ -0,0 +1,147 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares {@link ExecutionMode#WORKER} and {@link ExecutionMode#SINGLE_HOP}: latency from execute to
+ * onComplete and bytes allocated per execute by all the threads, when the JVM can measure them.
+ * Results are printed on the standard output. It is a manual benchmark in its own source set, not part
+ * of the unit tests: run it with {@code ./gradlew :androidarchitecture:testDebugUnitTest -Pbenchmark}.
+ */
+public class ExecutionModeBenchmark {
+
+    private static final int WARMUP = 2000;
+    private static final int ITERATIONS = 5000;
+
+    @Test
+    public void compareExecutionModes() throws Exception {
+        Result worker = measure(ExecutionMode.WORKER);
+        Result singleHop = measure(ExecutionMode.SINGLE_HOP);
+
+        System.out.println(worker);
+        System.out.println(singleHop);
+
+        assertEquals(ITERATIONS, worker.completed);
+        assertEquals(ITERATIONS, singleHop.completed);
+    }
+
+    private Result measure(ExecutionMode mode) throws Exception {
+        // a fixed pool for the work, a single thread standing for the main one
+        Scheduler threadExecutor = Schedulers.computation();
+        Scheduler postExecutionThread = Schedulers.single();
+        BaseUseCase<Integer> usecase = new BaseUseCase<Integer>(threadExecutor, postExecutionThread) {
+            @Override
+            protected Observable<Integer> buildUseCaseObservable(Bundle b) {
+                return Observable.just(1);
+            }
+        };
+        usecase.setExecutionMode(mode);
+
+        for (int i = 0; i < WARMUP; i++) {
+            executeAndWait(usecase);
+        }
+
+        long bytesBefore = allocatedBytes();
+        long totalNanos = 0;
+        int completed = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long start = System.nanoTime();
+            if(executeAndWait(usecase)) {
+                completed++;
+            }
+            totalNanos += System.nanoTime() - start;
+        }
+        long bytesAfter = allocatedBytes();
+
+        long bytesPerExecute = bytesBefore >= 0 && bytesAfter >= 0 ? (bytesAfter - bytesBefore) / ITERATIONS : -1;
+        return new Result(mode, completed, totalNanos / ITERATIONS, bytesPerExecute);
+    }
+
+    private boolean executeAndWait(BaseUseCase<Integer> usecase) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        usecase.execute(new CountingObserver<>(latch), null);
+        return latch.await(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Bytes allocated so far by all the live threads, -1 when the JVM does not support it
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if(!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if(bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    private static final class CountingObserver<T> implements Observer<T> {
+        private final CountDownLatch latch;
+
+        CountingObserver(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+        }
+
+        @Override
+        public void onNext(T value) {
+        }
+
+        @Override
+        public void onError(Throwable e) {
+        }
+
+        @Override
+        public void onComplete() {
+            if(latch != null) latch.countDown();
+        }
+    }
+
+    private static final class Result {
+        final ExecutionMode mode;
+        final int completed;
+        final long averageNanos;
+        final long bytesPerExecute;
+
+        Result(ExecutionMode mode, int completed, long averageNanos, long bytesPerExecute) {
+            this.mode = mode;
+            this.completed = completed;
+            this.averageNanos = averageNanos;
+            this.bytesPerExecute = bytesPerExecute;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-10s latency %6.1f us, allocation %s per execute", mode,
+                    averageNanos / 1000.0, bytesPerExecute >= 0 ? bytesPerExecute + " bytes" : "not measurable");
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package sysdata.it.androidarchitecture;
 
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * Created by Andrea Guitto on 18/01/2018.
  */
@@ -7,4 +10,26 @@ package sysdata.it.androidarchitecture;
 public interface BaseModuleConfiguration {
     void onClassProviderSetup(DependencyManager.ConfigurationDependencyLoader loader);
     void onClassProviderDiscard(DependencyManager.ConfigurationDependencyLoader loader);
+
+    /**
+     * The modules that must be set up before this one, modules not added to the {@link DependencyManager} are ignored
+     */
+    default Set<Class<? extends BaseModuleConfiguration>> getDependencies() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * The manifest of the keys registered by this module, required by {@link LoadPolicy#ON_DEMAND} modules
+     * and by {@link LoadPolicy#BACKGROUND} ones whose keys can be requested before their loading ends
+     */
+    default Set<String> getProvidedKeys() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * An {@link LoadPolicy#EAGER} module loads also its dependencies on the calling thread
+     */
+    default LoadPolicy getLoadPolicy() {
+        return LoadPolicy.EAGER;
+    }
 }
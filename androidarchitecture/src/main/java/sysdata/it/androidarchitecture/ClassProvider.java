@@ -0,0 +1,33 @@
+package sysdata.it.androidarchitecture;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link BaseClassProvider} implementation to be collected by the
+ * androidarchitectureprocessor, which generates a {@link ProviderRegistry}
+ * with a switch-based lookup instead of a manual registration in
+ * {@link BaseModuleConfiguration#onClassProviderSetup(DependencyManager.ConfigurationDependencyLoader)}.
+ *
+ * The annotated class must be public, not abstract and have a public no-args constructor.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface ClassProvider {
+
+    /**
+     * Key used with {@link DependencyManager#provideObject(Class, String)}
+     */
+    String key();
+
+    /**
+     * Same meaning of the priority passed to registerProvider: lower values win
+     */
+    int priority() default 0;
+
+    String group() default DependencyManager.DEFAULT_GROUP;
+
+    ProviderScope scope() default ProviderScope.NONE;
+}
@@ -2,14 +2,19 @@ package sysdata.it.androidarchitecture;
 
 import android.content.Context;
 import android.os.Bundle;
-import android.support.annotation.NonNull;
 import android.text.TextUtils;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Created by Andrea Guitto on 18/01/2018.
@@ -17,10 +22,12 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public final class DependencyManager {
 
+    public static final String DEFAULT_GROUP = "default";
+
     private static final ConfigurationDependencyLoader dependencyLoader = new ConfigurationDependencyLoader();
 
     /**
-     * This method will load kits
+     * This method will load kits, following their dependencies and {@link LoadPolicy}
      */
     public static void loadElements() {
         dependencyLoader.loadAllElements();
@@ -42,6 +49,21 @@ public final class DependencyManager {
         dependencyLoader.removeModule(kitConfiguration);
     }
 
+    /**
+     * This method will add a registry of providers, usually the one generated from {@link ClassProvider} annotations
+     * @param registry
+     */
+    public static void addRegistry(ProviderRegistry registry) {
+        dependencyLoader.addRegistry(registry);
+    }
+
+    /**
+     * This method will remove a registry previously added
+     * @param registry
+     */
+    public static void removeRegistry(ProviderRegistry registry) {
+        dependencyLoader.removeRegistry(registry);
+    }
 
     /**
      *
@@ -86,7 +108,21 @@ public final class DependencyManager {
      * @return
      */
     public static <T>T provideObject(Class<T> clazz, String customClass, Bundle bundle, String group, Context context) {
-        Object returnValue = dependencyLoader.provideObject(customClass, bundle, group, context);
+        return provideObject(clazz, customClass, bundle, group, context, null);
+    }
+
+    /**
+     *
+     * @param clazz
+     * @param customClass
+     * @param bundle
+     * @param group
+     * @param context
+     * @param scope the scope holding objects of providers registered with {@link ProviderScope#VIEW_MODEL}
+     * @return
+     */
+    public static <T>T provideObject(Class<T> clazz, String customClass, Bundle bundle, String group, Context context, DependencyScope scope) {
+        Object returnValue = dependencyLoader.provideObject(customClass, bundle, group, context, scope);
 
         if(returnValue != null && clazz.isAssignableFrom(returnValue.getClass())){
             return (T) returnValue;
@@ -94,33 +130,172 @@ public final class DependencyManager {
         return null;
     }
 
+    /**
+     * Provides the object registered with a {@link TypedProvider} for the type, without parameters
+     * @param type
+     * @return
+     */
+    public static <T> T provide(Class<T> type) {
+        return dependencyLoader.provide(type, null);
+    }
+
     /**
      *
+     * @param type
+     * @param scope the scope holding objects of providers registered with {@link ProviderScope#VIEW_MODEL}
+     * @return
+     */
+    public static <T> T provide(Class<T> type, DependencyScope scope) {
+        return dependencyLoader.provide(type, scope);
+    }
+
+    /**
+     * Provides the object registered with a {@link TypedProvider} for the key
+     * @param key
+     * @param params the parameters, of the type declared by the key
+     * @return
      */
-    private static final class ComparableClassProviderWrapper implements Comparable<ComparableClassProviderWrapper>{
-        private BaseClassProvider provider;
-        int priority;
-        private String componentGroup;
-        public ComparableClassProviderWrapper(BaseClassProvider provider, int priority, String componentGroup) {
-            this.provider = provider;
-            this.priority = priority;
-            this.componentGroup = componentGroup;
+    public static <T, P> T provide(Key<T, P> key, P params) {
+        return dependencyLoader.provide(key, params, null);
+    }
+
+    /**
+     *
+     * @param key
+     * @param params the parameters, of the type declared by the key
+     * @param scope the scope holding objects of providers registered with {@link ProviderScope#VIEW_MODEL}
+     * @return
+     */
+    public static <T, P> T provide(Key<T, P> key, P params, DependencyScope scope) {
+        return dependencyLoader.provide(key, params, scope);
+    }
+
+    /**
+     * Enables the {@link DependencyMetrics}, to collect module setup times call it before {@link #loadElements()}.
+     * Disabling it drops the metrics collected
+     * @param enabled
+     */
+    public static void setMetricsEnabled(boolean enabled) {
+        dependencyLoader.setMetricsEnabled(enabled);
+    }
+
+    /**
+     *
+     * @return the metrics collected, or null if they are not enabled
+     */
+    public static DependencyMetrics.Snapshot getMetricsSnapshot() {
+        DependencyMetrics metrics = dependencyLoader.getMetrics();
+        return metrics != null ? metrics.snapshot() : null;
+    }
+
+    /**
+     * Writes the metrics collected in a trace file that can be compared between releases
+     * @param file
+     * @throws IOException
+     */
+    public static void writeMetricsTrace(File file) throws IOException {
+        DependencyMetrics.Snapshot snapshot = getMetricsSnapshot();
+        if(snapshot == null) {
+            throw new IllegalStateException("Metrics are not enabled");
         }
 
-        @Override
-        public int compareTo(@NonNull ComparableClassProviderWrapper toObject) {
-            if(toObject == null) return 0;
-            return priority > toObject.priority ? 1 : priority < toObject.priority ? -1 : 0;
+        try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+            snapshot.writeTrace(writer);
         }
     }
 
+    /**
+     * Records the keys resolved in the first milliseconds after {@link #loadElements()} and, on the next launches,
+     * resolves them again on a background thread while the first screen is created. Call it before {@link #loadElements()}
+     * @param context
+     * @param recordWindowMillis
+     */
+    public static void enableStartupProfile(Context context, long recordWindowMillis) {
+        dependencyLoader.enableStartupProfile(context.getFilesDir(), recordWindowMillis);
+    }
+
+    /**
+     * This method will evict the objects of providers registered with {@link ProviderScope#GROUP}
+     * @param group
+     */
+    public static void releaseGroup(String group) {
+        dependencyLoader.releaseGroup(group);
+    }
+
     /**
      *
      */
     public static final class ConfigurationDependencyLoader {
 
         private List<BaseModuleConfiguration> configurations;
-        private Map<String, PriorityQueue<ComparableClassProviderWrapper>> objectProvidersMap = new ConcurrentHashMap();
+        /**
+         * Rebuilt copy-on-write under {@link #registrationLock} and read without locks
+         */
+        private volatile ResolutionIndex resolutionIndex = ResolutionIndex.EMPTY;
+        private volatile TypedIndex typedIndex = TypedIndex.EMPTY;
+        private final Object registrationLock = new Object();
+        /**
+         * Changes made on this thread by a module setup, applied together by {@link #registerInBatch(Runnable)}
+         */
+        private final ThreadLocal<List<IndexUpdate>> pendingUpdates = new ThreadLocal<>();
+        private volatile ModuleLoader moduleLoader;
+        private volatile DependencyMetrics metrics;
+        private volatile StartupProfile startupProfile;
+        private final List<ProviderRegistry> registries = new CopyOnWriteArrayList<>();
+        private final Set<ScopedBinding> scopedBindings = Collections.newSetFromMap(new ConcurrentHashMap<ScopedBinding, Boolean>());
+        /**
+         * The parameters type of each typed key registered, keys are identified by type and name only
+         */
+        private final ConcurrentHashMap<String, Class<?>> typedParams = new ConcurrentHashMap<>();
+
+        /**
+         *
+         * @param directory where the profile is persisted
+         * @param recordWindowMillis
+         */
+        public void enableStartupProfile(File directory, long recordWindowMillis) {
+            if(startupProfile == null) {
+                startupProfile = new StartupProfile(directory, recordWindowMillis);
+            }
+        }
+
+        /**
+         *
+         * @param enabled
+         */
+        public void setMetricsEnabled(boolean enabled) {
+            if(!enabled) {
+                metrics = null;
+            } else if(metrics == null) {
+                metrics = new DependencyMetrics();
+            }
+        }
+
+        /**
+         *
+         * @return the current metrics, null if disabled
+         */
+        public DependencyMetrics getMetrics() {
+            return metrics;
+        }
+
+        /**
+         *
+         * @param registry
+         */
+        public void addRegistry(ProviderRegistry registry) {
+            if(registry != null && !registries.contains(registry)) {
+                registries.add(registry);
+            }
+        }
+
+        /**
+         *
+         * @param registry
+         */
+        public void removeRegistry(ProviderRegistry registry) {
+            registries.remove(registry);
+        }
 
         /**
          *
@@ -150,13 +325,26 @@ public final class DependencyManager {
          */
         public void loadAllElements() {
             if(configurations != null){
-                for (int i = 0; i < configurations.size(); i++) {
-                    BaseModuleConfiguration baseModuleConfiguration = configurations.get(i);
-                    baseModuleConfiguration.onClassProviderSetup(this);
-                }
+                ModuleLoader loader = new ModuleLoader(this, new ArrayList<>(configurations));
+                moduleLoader = loader;
+                loader.load();
+            }
+
+            StartupProfile profile = startupProfile;
+            if(profile != null) {
+                profile.start(this);
             }
         }
 
+        /**
+         *
+         * @return true while some {@link LoadPolicy#BACKGROUND} module is still loading
+         */
+        public boolean isLoading() {
+            ModuleLoader loader = moduleLoader;
+            return loader != null && loader.isLoading();
+        }
+
         /**
          *
          */
@@ -175,61 +363,244 @@ public final class DependencyManager {
          * @param provider
          */
         public void registerProvider(String key, BaseClassProvider provider, int priority, String componentGroup) {
+            registerProvider(key, provider, priority, componentGroup, ProviderScope.NONE);
+        }
 
-            PriorityQueue<ComparableClassProviderWrapper> baseClassProviders = objectProvidersMap.get(key);
+        /**
+         * The provider with the lowest priority value wins, with same priority the first registered wins.
+         * Registering again the same provider for the key replaces the previous registration.
+         *
+         * @param key
+         * @param provider
+         * @param scope how long the provided object is reused
+         */
+        public void registerProvider(String key, BaseClassProvider provider, int priority, String componentGroup, ProviderScope scope) {
+            ProviderBinding newBinding = new ProviderBinding(provider, priority, normalizeGroup(componentGroup), scope);
+
+            update(changes -> {
+                List<ProviderBinding> bindings = new ArrayList<>();
+                for (ProviderBinding binding : changes.providers().registrations(key)) {
+                    if(binding.provider.equals(provider)) {
+                        releaseBinding(binding);
+                    } else {
+                        bindings.add(binding);
+                    }
+                }
+                bindings.add(newBinding);
 
-            if(baseClassProviders == null) {
-                baseClassProviders = new PriorityQueue<>();
-            }
+                changes.providers().put(key, bindings);
+            });
+        }
 
-            boolean findOne = findProvider(key, provider);
-            if(findOne) {
-                unregisterProvider(key, provider);
-            }
+        /**
+         *
+         * @param key
+         * @param provider
+         */
+        public void unregisterProvider(String key, BaseClassProvider provider) {
+            update(changes -> {
+                List<ProviderBinding> registrations = changes.providers().registrations(key);
+                List<ProviderBinding> bindings = new ArrayList<>(registrations.size());
+                for (ProviderBinding binding : registrations) {
+                    if(binding.provider.equals(provider)) {
+                        releaseBinding(binding);
+                    } else {
+                        bindings.add(binding);
+                    }
+                }
+
+                if(bindings.size() != registrations.size()) {
+                    changes.providers().put(key, bindings);
+                }
+            });
+        }
 
-            baseClassProviders.add(new ComparableClassProviderWrapper(provider, priority, componentGroup));
+        /**
+         *
+         * @param key
+         * @param provider
+         */
+        public <T, P> void registerProvider(Key<T, P> key, TypedProvider<? super P, ? extends T> provider) {
+            registerProvider(key, provider, 0, ProviderScope.NONE);
+        }
+
+        /**
+         * The provider with the lowest priority value wins, with same priority the first registered wins.
+         * Registering again the same provider for the key replaces the previous registration.
+         *
+         * @param key
+         * @param provider
+         * @param scope how long the provided object is reused
+         * @throws IllegalArgumentException if the type and name of the key are registered with other parameters
+         */
+        public <T, P> void registerProvider(Key<T, P> key, TypedProvider<? super P, ? extends T> provider, int priority, ProviderScope scope) {
+            Class<?> paramsType = typedParams.putIfAbsent(key.getId(), key.getParamsType());
+            if(paramsType != null && paramsType != key.getParamsType()) {
+                throw new IllegalArgumentException("Key " + key + " is already registered with parameters of type " + paramsType.getName()
+                        + ", found " + key.getParamsType().getName());
+            }
+            TypedBinding newBinding = new TypedBinding(key, provider, priority, scope);
+
+            update(changes -> {
+                List<TypedBinding> bindings = new ArrayList<>();
+                for (TypedBinding binding : changes.typed().registrations(key)) {
+                    if(binding.provider.equals(provider)) {
+                        releaseBinding(binding);
+                    } else {
+                        bindings.add(binding);
+                    }
+                }
+                bindings.add(newBinding);
 
-            // setup new list
-            objectProvidersMap.put(key, baseClassProviders);
+                changes.typed().put(key, bindings);
+            });
         }
 
         /**
          *
          * @param key
-         * @return
+         * @param provider
+         */
+        public <T, P> void unregisterProvider(Key<T, P> key, TypedProvider<? super P, ? extends T> provider) {
+            update(changes -> {
+                List<TypedBinding> registrations = changes.typed().registrations(key);
+                List<TypedBinding> bindings = new ArrayList<>(registrations.size());
+                for (TypedBinding binding : registrations) {
+                    if(binding.provider.equals(provider)) {
+                        releaseBinding(binding);
+                    } else {
+                        bindings.add(binding);
+                    }
+                }
+
+                if(bindings.size() != registrations.size()) {
+                    changes.typed().put(key, bindings);
+                    if(bindings.isEmpty()) {
+                        typedParams.remove(key.getId(), key.getParamsType());
+                    }
+                }
+            });
+        }
+
+        /**
+         * Runs the registrations of a module setup and publishes them with a single rebuild of the indexes,
+         * instead of one copy of the indexes per key. A lookup missing on this thread meanwhile publishes
+         * the registrations made so far.
          */
-        private boolean findProvider(String key, BaseClassProvider provider) {
-            PriorityQueue<ComparableClassProviderWrapper> baseClassProviders = objectProvidersMap.get(key);
+        void registerInBatch(Runnable registrations) {
+            if(pendingUpdates.get() != null) {
+                registrations.run();
+                return;
+            }
+
+            List<IndexUpdate> updates = new ArrayList<>();
+            pendingUpdates.set(updates);
+            try {
+                registrations.run();
+            } finally {
+                pendingUpdates.remove();
+                apply(updates);
+            }
+        }
 
-            if(baseClassProviders == null) {
-                baseClassProviders = new PriorityQueue<>();
+        private void update(IndexUpdate update) {
+            List<IndexUpdate> batch = pendingUpdates.get();
+            if(batch != null) {
+                batch.add(update);
+            } else {
+                apply(Collections.singletonList(update));
             }
+        }
 
-            boolean find = false;
-            for (ComparableClassProviderWrapper baseClassProvider : baseClassProviders) {
-                if(baseClassProvider.provider.equals(provider)){
-                    find = true;
-                    break;
+        /**
+         * The updates are applied again on the current indexes, so registrations made meanwhile by other
+         * threads are kept
+         */
+        private void apply(List<IndexUpdate> updates) {
+            if(updates.isEmpty()) {
+                return;
+            }
+            synchronized (registrationLock) {
+                IndexChanges changes = new IndexChanges();
+                for (IndexUpdate update : updates) {
+                    update.apply(changes);
                 }
+                changes.publish();
+            }
+        }
+
+        /**
+         * @return true if registrations pending on this thread have been published
+         */
+        private boolean publishPendingUpdates() {
+            List<IndexUpdate> batch = pendingUpdates.get();
+            if(batch == null || batch.isEmpty()) {
+                return false;
             }
+            List<IndexUpdate> updates = new ArrayList<>(batch);
+            batch.clear();
+            apply(updates);
+            return true;
+        }
 
-            return find;
+        private interface IndexUpdate {
+            void apply(IndexChanges changes);
+        }
+
+        /**
+         * Copies of the indexes made on the first change, guarded by {@link #registrationLock}
+         */
+        private final class IndexChanges {
+            private ResolutionIndex.Builder providers;
+            private TypedIndex.Builder typed;
+
+            ResolutionIndex.Builder providers() {
+                if(providers == null) {
+                    providers = resolutionIndex.toBuilder();
+                }
+                return providers;
+            }
+
+            TypedIndex.Builder typed() {
+                if(typed == null) {
+                    typed = typedIndex.toBuilder();
+                }
+                return typed;
+            }
+
+            void publish() {
+                if(providers != null) {
+                    resolutionIndex = providers.build();
+                }
+                if(typed != null) {
+                    typedIndex = typed.build();
+                }
+            }
         }
 
         /**
          *
-         * @param key
-         * @param provider
+         * @param group
          */
-        public void unregisterProvider(String key, BaseClassProvider provider) {
-            if(objectProvidersMap != null) {
-                PriorityQueue<ComparableClassProviderWrapper> baseClassProviders = objectProvidersMap.get(key);
-                if (baseClassProviders != null && baseClassProviders.size() > 0) {
-                    baseClassProviders.remove(provider);
+        public void releaseGroup(String group) {
+            // registration stores null and empty groups as the default one
+            String normalizedGroup = normalizeGroup(group);
+            for (ScopedBinding binding : scopedBindings) {
+                if(binding.scope == ProviderScope.GROUP && binding.componentGroup.equals(normalizedGroup)) {
+                    releaseBinding(binding);
                 }
             }
         }
 
+        void onScopedInstanceCreated(ScopedBinding binding) {
+            scopedBindings.add(binding);
+        }
+
+        private void releaseBinding(ScopedBinding binding) {
+            scopedBindings.remove(binding);
+            binding.releaseInstance();
+        }
+
         /**
          *
          * @param key
@@ -246,7 +617,7 @@ public final class DependencyManager {
          * @return
          */
         public Object provideObject(String key, Bundle bundle) {
-            return provideObject(key, bundle, "default");
+            return provideObject(key, bundle, DEFAULT_GROUP);
         }
 
         /**
@@ -266,23 +637,172 @@ public final class DependencyManager {
          * @return
          */
         public Object provideObject(String key, Bundle bundle, String group, Context context) {
-            String groupNormalized = group;
+            return provideObject(key, bundle, group, context, null);
+        }
 
-            if(TextUtils.isEmpty(group)){
-                groupNormalized = "default";
+        /**
+         *
+         * @param key
+         * @param bundle
+         * @param scope
+         * @return
+         */
+        public Object provideObject(String key, Bundle bundle, String group, Context context, DependencyScope scope) {
+            DependencyMetrics metrics = this.metrics;
+            long start = metrics != null ? System.nanoTime() : 0;
+            String groupNormalized = normalizeGroup(group);
+
+            ProviderBinding binding = findBinding(key, groupNormalized);
+            if(binding == null && loadMissingKey(key)) {
+                binding = findBinding(key, groupNormalized);
             }
 
-            if(objectProvidersMap != null) {
-                PriorityQueue<ComparableClassProviderWrapper> baseClassProviders = objectProvidersMap.get(key);
-                if (baseClassProviders != null && baseClassProviders.size() > 0) {
-                    for (ComparableClassProviderWrapper baseClassProvider : baseClassProviders) {
-                        if(baseClassProvider.componentGroup.equals(groupNormalized)) {
-                            return baseClassProvider.provider.provideObject(bundle, context);
-                        }
-                    }
+            Object returnValue = binding != null ? binding.resolve(key, bundle, context, scope, this) : null;
+            if(metrics != null) {
+                metrics.recordResolve(key, binding != null, System.nanoTime() - start);
+            }
+
+            StartupProfile profile = startupProfile;
+            if(profile != null && profile.isRecording()) {
+                profile.recordProvider(key, groupNormalized, returnValue, bundle == null && context == null);
+            }
+            return returnValue;
+        }
+
+        /**
+         *
+         * @param type
+         * @param scope
+         * @return
+         * @throws IllegalArgumentException if the provider registered for the type expects parameters
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T provide(Class<T> type, DependencyScope scope) {
+            DependencyMetrics metrics = this.metrics;
+            long start = metrics != null ? System.nanoTime() : 0;
+
+            TypedBinding binding = typedIndex.find(type);
+            if(binding == null && loadMissingKey(type.getName())) {
+                binding = typedIndex.find(type);
+            }
+            if(binding != null) {
+                checkParamsType(binding, Void.class);
+            }
+
+            T returnValue = binding != null ? (T) binding.resolve(type.getName(), null, null, scope, this) : null;
+            if(metrics != null) {
+                metrics.recordResolve(type.getName(), binding != null, System.nanoTime() - start);
+            }
+
+            StartupProfile profile = startupProfile;
+            if(profile != null && profile.isRecording() && binding != null) {
+                profile.recordTyped(binding.key, returnValue, true);
+            }
+            return returnValue;
+        }
+
+        /**
+         *
+         * @param key
+         * @param params
+         * @param scope
+         * @return
+         * @throws IllegalArgumentException if the params are not of the type declared by the key, passed through a raw key,
+         * or the key is registered with other parameters
+         */
+        @SuppressWarnings("unchecked")
+        public <T, P> T provide(Key<T, P> key, P params, DependencyScope scope) {
+            if(params != null && !key.getParamsType().isInstance(params)) {
+                throw new IllegalArgumentException("Key " + key + " expects parameters of type " + key.getParamsType().getName()
+                        + ", found " + params.getClass().getName());
+            }
+            DependencyMetrics metrics = this.metrics;
+            long start = metrics != null ? System.nanoTime() : 0;
+
+            TypedBinding binding = typedIndex.find(key);
+            if(binding == null && loadMissingKey(key.getId())) {
+                binding = typedIndex.find(key);
+            }
+            if(binding != null) {
+                checkParamsType(binding, key.getParamsType());
+            }
+
+            T returnValue = binding != null ? (T) binding.resolve(key.getId(), params, null, scope, this) : null;
+            if(metrics != null) {
+                metrics.recordResolve(key.getId(), binding != null, System.nanoTime() - start);
+            }
+
+            StartupProfile profile = startupProfile;
+            if(profile != null && profile.isRecording()) {
+                profile.recordTyped(key, returnValue, params == null);
+            }
+            return returnValue;
+        }
+
+        private static void checkParamsType(TypedBinding binding, Class<?> paramsType) {
+            if(binding.key.getParamsType() != paramsType) {
+                throw new IllegalArgumentException("Key " + binding.key + " expects parameters of type " + binding.key.getParamsType().getName()
+                        + ", requested with " + paramsType.getName());
+            }
+        }
+
+        /**
+         * Creates in advance the object of a provider cached in its binding
+         */
+        void prewarm(String key, String group) {
+            String groupNormalized = normalizeGroup(group);
+            ProviderBinding binding = findBinding(key, groupNormalized);
+            if(binding == null && loadMissingKey(key)) {
+                binding = findBinding(key, groupNormalized);
+            }
+            prewarm(key, binding);
+        }
+
+        void prewarm(Key<?, ?> key) {
+            TypedBinding binding = typedIndex.find(key);
+            if(binding == null && loadMissingKey(key.getId())) {
+                binding = typedIndex.find(key);
+            }
+            prewarm(key.getId(), binding);
+        }
+
+        private void prewarm(String key, ScopedBinding binding) {
+            if(binding != null && (binding.scope == ProviderScope.SINGLETON || binding.scope == ProviderScope.GROUP)) {
+                binding.resolve(key, null, null, null, this);
+            }
+        }
+
+        /**
+         * The key could be registered by a module on demand or still loading
+         *
+         * @return true if some module has been loaded meanwhile and the lookup should be retried
+         */
+        private boolean loadMissingKey(String key) {
+            if(publishPendingUpdates()) {
+                return true;
+            }
+            ModuleLoader loader = moduleLoader;
+            return loader != null && (loader.activate(key) || loader.awaitBackgroundLoading(key));
+        }
+
+        private ProviderBinding findBinding(String key, String group) {
+            ProviderBinding resolved = resolutionIndex.find(key, group);
+            if(resolved != null) {
+                return resolved;
+            }
+
+            // providers registered manually win over the generated ones
+            for (int i = 0; i < registries.size(); i++) {
+                ProviderBinding binding = registries.get(i).findBinding(key, group);
+                if(binding != null) {
+                    return binding;
                 }
             }
             return null;
         }
+
+        private static String normalizeGroup(String group) {
+            return TextUtils.isEmpty(group) ? DEFAULT_GROUP : group;
+        }
     }
 }
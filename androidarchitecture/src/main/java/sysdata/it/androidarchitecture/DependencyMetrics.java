@@ -0,0 +1,208 @@
+package sysdata.it.androidarchitecture;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects the time spent by {@link DependencyManager}: module setups, resolutions per key and
+ * provider constructions. It is created only when enabled with {@link DependencyManager#setMetricsEnabled(boolean)},
+ * otherwise the resolution path pays a single null check.
+ */
+public final class DependencyMetrics {
+
+    /**
+     * Construction latency buckets: bucket i counts constructions shorter than 2^i microseconds, the last one the slower ones
+     */
+    public static final int HISTOGRAM_BUCKETS = 16;
+
+    private final ConcurrentHashMap<String, Long> moduleSetupNanos = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, KeyMetrics> keyMetrics = new ConcurrentHashMap<>();
+    private final AtomicLong resolveNanos = new AtomicLong();
+
+    void recordModuleSetup(String module, long nanos) {
+        moduleSetupNanos.put(module, nanos);
+    }
+
+    void recordResolve(String key, boolean found, long nanos) {
+        resolveNanos.addAndGet(nanos);
+
+        KeyMetrics metrics = keyMetrics(key);
+        metrics.resolves.incrementAndGet();
+        if(!found) {
+            metrics.misses.incrementAndGet();
+        }
+    }
+
+    void recordConstruction(String key, long nanos) {
+        KeyMetrics metrics = keyMetrics(key);
+        metrics.constructions.incrementAndGet();
+        metrics.constructionNanos.addAndGet(nanos);
+        metrics.histogram.incrementAndGet(bucketOf(nanos));
+    }
+
+    private KeyMetrics keyMetrics(String key) {
+        String normalizedKey = key != null ? key : "null";
+        KeyMetrics metrics = keyMetrics.get(normalizedKey);
+        if(metrics == null) {
+            KeyMetrics created = new KeyMetrics();
+            metrics = keyMetrics.putIfAbsent(normalizedKey, created);
+            if(metrics == null) {
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+
+    static int bucketOf(long nanos) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        int bucket = 0;
+        while (bucket < HISTOGRAM_BUCKETS - 1 && micros >= (1L << bucket)) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    public Snapshot snapshot() {
+        Map<String, KeySnapshot> keys = new TreeMap<>();
+        for (Map.Entry<String, KeyMetrics> entry : keyMetrics.entrySet()) {
+            keys.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return new Snapshot(new TreeMap<>(moduleSetupNanos), keys, resolveNanos.get());
+    }
+
+    private static final class KeyMetrics {
+        final AtomicLong resolves = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong constructions = new AtomicLong();
+        final AtomicLong constructionNanos = new AtomicLong();
+        final AtomicLongArray histogram = new AtomicLongArray(HISTOGRAM_BUCKETS);
+
+        KeySnapshot snapshot() {
+            long[] buckets = new long[HISTOGRAM_BUCKETS];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = histogram.get(i);
+            }
+            return new KeySnapshot(resolves.get(), misses.get(), constructions.get(), constructionNanos.get(), buckets);
+        }
+    }
+
+    /**
+     * Immutable copy of the metrics, sorted by name so that two traces can be diffed
+     */
+    public static final class Snapshot {
+        private final Map<String, Long> moduleSetupNanos;
+        private final Map<String, KeySnapshot> keys;
+        private final long resolveNanos;
+
+        Snapshot(Map<String, Long> moduleSetupNanos, Map<String, KeySnapshot> keys, long resolveNanos) {
+            this.moduleSetupNanos = Collections.unmodifiableMap(moduleSetupNanos);
+            this.keys = Collections.unmodifiableMap(keys);
+            this.resolveNanos = resolveNanos;
+        }
+
+        /**
+         * Setup time of each module, by module class name
+         */
+        public Map<String, Long> getModuleSetupNanos() {
+            return moduleSetupNanos;
+        }
+
+        public Map<String, KeySnapshot> getKeys() {
+            return keys;
+        }
+
+        /**
+         * Total time spent inside provideObject and provide
+         */
+        public long getResolveNanos() {
+            return resolveNanos;
+        }
+
+        /**
+         * Writes a line based trace, stable between runs with the same graph
+         */
+        public void writeTrace(Writer writer) throws IOException {
+            writer.write("# DependencyManager trace\n");
+            writer.write("resolve.total.us=" + TimeUnit.NANOSECONDS.toMicros(resolveNanos) + "\n");
+
+            long setupNanos = 0;
+            for (Map.Entry<String, Long> entry : moduleSetupNanos.entrySet()) {
+                setupNanos += entry.getValue();
+                writer.write("module " + entry.getKey() + " setup.us=" + TimeUnit.NANOSECONDS.toMicros(entry.getValue()) + "\n");
+            }
+            writer.write("module.total.us=" + TimeUnit.NANOSECONDS.toMicros(setupNanos) + "\n");
+
+            for (Map.Entry<String, KeySnapshot> entry : keys.entrySet()) {
+                KeySnapshot key = entry.getValue();
+                writer.write("key " + entry.getKey()
+                        + " resolves=" + key.resolves
+                        + " misses=" + key.misses
+                        + " constructions=" + key.constructions
+                        + " construction.avg.us=" + key.getAverageConstructionMicros()
+                        + " histogram.us=" + key.histogramToString() + "\n");
+            }
+            writer.flush();
+        }
+    }
+
+    public static final class KeySnapshot {
+        private final long resolves;
+        private final long misses;
+        private final long constructions;
+        private final long constructionNanos;
+        private final long[] histogram;
+
+        KeySnapshot(long resolves, long misses, long constructions, long constructionNanos, long[] histogram) {
+            this.resolves = resolves;
+            this.misses = misses;
+            this.constructions = constructions;
+            this.constructionNanos = constructionNanos;
+            this.histogram = histogram;
+        }
+
+        public long getResolves() {
+            return resolves;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getConstructions() {
+            return constructions;
+        }
+
+        public long getConstructionNanos() {
+            return constructionNanos;
+        }
+
+        public long getAverageConstructionMicros() {
+            return constructions > 0 ? TimeUnit.NANOSECONDS.toMicros(constructionNanos / constructions) : 0;
+        }
+
+        /**
+         * See {@link #HISTOGRAM_BUCKETS}
+         */
+        public long[] getHistogram() {
+            return histogram.clone();
+        }
+
+        String histogramToString() {
+            StringBuilder builder = new StringBuilder("[");
+            for (int i = 0; i < histogram.length; i++) {
+                if(histogram[i] == 0) continue;
+
+                if(builder.length() > 1) builder.append(',');
+                builder.append(i == histogram.length - 1 ? ">=" + (1L << (i - 1)) : "<" + (1L << i)).append(':').append(histogram[i]);
+            }
+            return builder.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package sysdata.it.androidarchitecture;
+
+import android.content.Context;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the objects of providers registered with {@link ProviderScope#VIEW_MODEL}.
+ * The owner must call {@link #close()} when its lifecycle ends, after that the scope does not cache anymore.
+ */
+public final class DependencyScope {
+
+    private final ConcurrentHashMap<ScopedBinding, ScopedInstance> instances = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    Object obtain(ScopedBinding binding, String key, Object params, Context context, DependencyMetrics metrics) {
+        if(closed) {
+            return binding.construct(key, params, context, metrics);
+        }
+
+        ScopedInstance scopedInstance = instances.get(binding);
+        if(scopedInstance == null) {
+            ScopedInstance created = new ScopedInstance();
+            scopedInstance = instances.putIfAbsent(binding, created);
+            if(scopedInstance == null) {
+                scopedInstance = created;
+            }
+        }
+        return scopedInstance.obtain(binding, key, params, context, metrics);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Evicts all the objects held by this scope
+     */
+    public void close() {
+        closed = true;
+        instances.clear();
+    }
+
+    /**
+     * Lazy holder with double checked creation
+     */
+    static final class ScopedInstance {
+        private volatile Object instance;
+
+        Object obtain(ScopedBinding binding, String key, Object params, Context context, DependencyMetrics metrics) {
+            Object value = instance;
+            if(value == null) {
+                synchronized (this) {
+                    value = instance;
+                    if(value == null) {
+                        value = binding.construct(key, params, context, metrics);
+                        instance = value;
+                    }
+                }
+            }
+            return value;
+        }
+
+        boolean isCreated() {
+            return instance != null;
+        }
+
+        void release() {
+            instance = null;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package sysdata.it.androidarchitecture;
+
+/**
+ * Identifies an object provided by a {@link TypedProvider}: its type and an optional name,
+ * used to register more objects of the same type.
+ * Keys are immutable and can be kept in static fields to avoid any allocation on lookup.
+ * Two keys with the same type and name are equal whatever their parameters type, a type and name can be
+ * registered with a single parameters type.
+ *
+ * @param <T> the type of the provided object
+ * @param <P> the type of the parameters passed to the provider, {@link Void} when none are needed
+ */
+public final class Key<T, P> {
+
+    private final Class<T> type;
+    private final Class<P> paramsType;
+    private final String name;
+    private final String id;
+    private final int hashCode;
+
+    private Key(Class<T> type, Class<P> paramsType, String name) {
+        if(type == null) throw new IllegalArgumentException("Key type cannot be null");
+        if(paramsType == null) throw new IllegalArgumentException("Key parameters type cannot be null");
+
+        this.type = type;
+        this.paramsType = paramsType;
+        this.name = name;
+        this.id = name == null ? type.getName() : type.getName() + "#" + name;
+        this.hashCode = id.hashCode();
+    }
+
+    public static <T> Key<T, Void> of(Class<T> type) {
+        return new Key<>(type, Void.class, null);
+    }
+
+    public static <T> Key<T, Void> of(Class<T> type, String name) {
+        return new Key<>(type, Void.class, name);
+    }
+
+    public static <T, P> Key<T, P> withParams(Class<T> type, Class<P> paramsType) {
+        return new Key<>(type, paramsType, null);
+    }
+
+    public static <T, P> Key<T, P> withParams(Class<T> type, Class<P> paramsType, String name) {
+        return new Key<>(type, paramsType, name);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public Class<P> getParamsType() {
+        return paramsType;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The string form of the key, the one to return in {@link BaseModuleConfiguration#getProvidedKeys()}
+     */
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof Key)) return false;
+
+        Key<?, ?> key = (Key<?, ?>) o;
+        return hashCode == key.hashCode && id.equals(key.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+}
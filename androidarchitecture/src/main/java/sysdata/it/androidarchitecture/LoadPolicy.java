@@ -0,0 +1,24 @@
+package sysdata.it.androidarchitecture;
+
+/**
+ * Defines when {@link DependencyManager#loadElements()} sets up a {@link BaseModuleConfiguration}
+ */
+public enum LoadPolicy {
+    /**
+     * The module is set up on the thread calling loadElements, before it returns. A failed setup is thrown
+     * by loadElements once the background modules are started
+     */
+    EAGER,
+    /**
+     * The module is set up on a background thread, in parallel with the other independent modules.
+     * A provideObject for a key of its {@link BaseModuleConfiguration#getProvidedKeys()} not registered yet
+     * waits the end of the setup of this module, other missing keys do not wait. A failed setup is thrown
+     * to the lookups of its keys
+     */
+    BACKGROUND,
+    /**
+     * The module is set up on the first provideObject of a key returned by
+     * {@link BaseModuleConfiguration#getProvidedKeys()}, or when an eager or background module depends on it
+     */
+    ON_DEMAND
+}
@@ -0,0 +1,412 @@
+package sysdata.it.androidarchitecture;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sets up the modules of a {@link DependencyManager.ConfigurationDependencyLoader} following their
+ * dependencies: {@link LoadPolicy#EAGER} modules on the calling thread, {@link LoadPolicy#BACKGROUND}
+ * ones on a bounded executor as soon as their dependencies are loaded and {@link LoadPolicy#ON_DEMAND}
+ * ones on the first request of a key of their manifest.
+ */
+final class ModuleLoader {
+
+    private static final String TAG = "ModuleLoader";
+    private static final int MAX_THREADS = 4;
+
+    private static final ThreadLocal<Boolean> loaderThread = new ThreadLocal<>();
+
+    private final DependencyManager.ConfigurationDependencyLoader loader;
+    private final Map<Class<?>, ModuleHandle> handles = new LinkedHashMap<>();
+    private final Map<String, ModuleHandle> manifest = new HashMap<>();
+    private final CountDownLatch backgroundLoading;
+    private final AtomicInteger pendingBackground;
+    private final List<ModuleHandle> orderedHandles;
+    private ThreadPoolExecutor executor;
+
+    ModuleLoader(DependencyManager.ConfigurationDependencyLoader loader, List<BaseModuleConfiguration> modules) {
+        this.loader = loader;
+
+        for (BaseModuleConfiguration module : modules) {
+            handles.put(module.getClass(), new ModuleHandle(module));
+        }
+        for (ModuleHandle handle : handles.values()) {
+            for (Class<? extends BaseModuleConfiguration> dependencyClass : handle.module.getDependencies()) {
+                ModuleHandle dependency = handles.get(dependencyClass);
+                if(dependency == null) {
+                    Log.w(TAG, "Dependency " + dependencyClass.getName() + " of " + handle.name() + " is not added, it will be ignored");
+                } else if(dependency != handle) {
+                    handle.dependencies.add(dependency);
+                    dependency.dependents.add(handle);
+                }
+            }
+        }
+
+        List<ModuleHandle> ordered = sortByDependencies();
+        resolvePolicies(ordered);
+
+        int background = 0;
+        for (ModuleHandle handle : ordered) {
+            if(handle.policy == LoadPolicy.BACKGROUND) {
+                background++;
+            }
+            if(handle.policy != LoadPolicy.EAGER) {
+                for (String key : handle.module.getProvidedKeys()) {
+                    manifest.put(key, handle);
+                }
+            }
+        }
+        pendingBackground = new AtomicInteger(background);
+        backgroundLoading = new CountDownLatch(background > 0 ? 1 : 0);
+        orderedHandles = ordered;
+    }
+
+    /**
+     * Loads the eager modules and starts the background ones, even when an eager module fails so that
+     * lookups never wait for background modules not started
+     *
+     * @throws IllegalStateException the failure of the first eager module not loaded
+     */
+    void load() {
+        RuntimeException eagerFailure = null;
+        try {
+            for (ModuleHandle handle : orderedHandles) {
+                if(handle.policy == LoadPolicy.EAGER) {
+                    try {
+                        handle.ensureLoaded(loader);
+                    } catch (RuntimeException e) {
+                        if(eagerFailure == null) {
+                            eagerFailure = e;
+                        } else {
+                            eagerFailure.addSuppressed(e);
+                        }
+                    }
+                }
+            }
+        } finally {
+            startBackground();
+        }
+
+        if(eagerFailure != null) {
+            throw eagerFailure;
+        }
+    }
+
+    /**
+     * Submits the background modules whose dependencies are loaded, the other ones follow their dependencies.
+     * The ready ones are collected before submitting any, a module whose dependencies end meanwhile is
+     * submitted only by {@link #onBackgroundLoaded(ModuleHandle)}
+     */
+    private void startBackground() {
+        List<ModuleHandle> ready = new ArrayList<>();
+        for (ModuleHandle handle : orderedHandles) {
+            if(handle.policy == LoadPolicy.BACKGROUND) {
+                int remaining = countNotLoaded(handle.dependencies);
+                handle.remainingDependencies.set(remaining);
+                if(remaining == 0) {
+                    ready.add(handle);
+                }
+            }
+        }
+        for (ModuleHandle handle : ready) {
+            submit(handle);
+        }
+    }
+
+    /**
+     * Loads, only once, the {@link LoadPolicy#ON_DEMAND} module declaring the key and its dependencies
+     *
+     * @return true if the key belongs to a module now loaded and the caller should retry its lookup
+     */
+    boolean activate(String key) {
+        ModuleHandle handle = key != null ? manifest.get(key) : null;
+        if(handle == null || handle.policy != LoadPolicy.ON_DEMAND) {
+            return false;
+        }
+
+        boolean alreadyLoaded = handle.isLoaded();
+        handle.ensureLoaded(loader);
+        return !alreadyLoaded && handle.isLoaded();
+    }
+
+    boolean isLoading() {
+        return backgroundLoading.getCount() > 0;
+    }
+
+    /**
+     * Waits the end of the {@link LoadPolicy#BACKGROUND} module declaring the key, keys not declared by a
+     * module still loading return at once. It never waits on a loader thread to avoid deadlocks
+     *
+     * @return true if the caller has waited and should retry its lookup
+     * @throws IllegalStateException if the setup of the module has failed
+     */
+    boolean awaitBackgroundLoading(String key) {
+        ModuleHandle handle = key != null ? manifest.get(key) : null;
+        if(handle == null || handle.policy != LoadPolicy.BACKGROUND) {
+            return false;
+        }
+        if(handle.isLoaded()) {
+            handle.throwIfFailed();
+            return false;
+        }
+        if(Boolean.TRUE.equals(loaderThread.get())) {
+            return false;
+        }
+
+        return handle.awaitLoaded();
+    }
+
+    private void submit(ModuleHandle handle) {
+        getExecutor().execute(() -> {
+            loaderThread.set(Boolean.TRUE);
+            try {
+                handle.ensureLoaded(loader);
+            } catch (RuntimeException e) {
+                // already logged, the failure is thrown to the threads requesting the module
+            } finally {
+                loaderThread.remove();
+                onBackgroundLoaded(handle);
+            }
+        });
+    }
+
+    private void onBackgroundLoaded(ModuleHandle handle) {
+        for (ModuleHandle dependent : handle.dependents) {
+            if(dependent.policy == LoadPolicy.BACKGROUND && dependent.remainingDependencies.decrementAndGet() == 0) {
+                submit(dependent);
+            }
+        }
+
+        if(pendingBackground.decrementAndGet() == 0) {
+            backgroundLoading.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private synchronized ThreadPoolExecutor getExecutor() {
+        if(executor == null) {
+            int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+            executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new LoaderThreadFactory());
+            executor.allowCoreThreadTimeOut(true);
+        }
+        return executor;
+    }
+
+    private static int countNotLoaded(List<ModuleHandle> modules) {
+        int count = 0;
+        for (ModuleHandle module : modules) {
+            if(!module.isLoaded()) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Kahn sort, keeps the insertion order between independent modules
+     */
+    private List<ModuleHandle> sortByDependencies() {
+        Map<ModuleHandle, Integer> inDegree = new LinkedHashMap<>();
+        Deque<ModuleHandle> ready = new ArrayDeque<>();
+        for (ModuleHandle handle : handles.values()) {
+            inDegree.put(handle, handle.dependencies.size());
+            if(handle.dependencies.isEmpty()) {
+                ready.add(handle);
+            }
+        }
+
+        List<ModuleHandle> ordered = new ArrayList<>(handles.size());
+        while (!ready.isEmpty()) {
+            ModuleHandle handle = ready.poll();
+            ordered.add(handle);
+            for (ModuleHandle dependent : handle.dependents) {
+                int degree = inDegree.get(dependent) - 1;
+                inDegree.put(dependent, degree);
+                if(degree == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if(ordered.size() != handles.size()) {
+            List<String> cycle = new ArrayList<>();
+            for (Map.Entry<ModuleHandle, Integer> entry : inDegree.entrySet()) {
+                if(entry.getValue() > 0) cycle.add(entry.getKey().name());
+            }
+            throw new IllegalStateException("Circular dependency between modules " + cycle);
+        }
+        return ordered;
+    }
+
+    /**
+     * Eager modules and all their dependencies are loaded on the calling thread, background modules and
+     * their dependencies not eager on the executor, the other modules stay on demand.
+     */
+    private void resolvePolicies(List<ModuleHandle> ordered) {
+        List<ModuleHandle> eagerRoots = new ArrayList<>();
+        List<ModuleHandle> backgroundRoots = new ArrayList<>();
+        for (ModuleHandle handle : ordered) {
+            LoadPolicy policy = handle.module.getLoadPolicy();
+            if(policy == LoadPolicy.ON_DEMAND && handle.module.getProvidedKeys().isEmpty()) {
+                Log.w(TAG, "Module " + handle.name() + " is on demand but declares no keys, it will be loaded eagerly");
+                policy = LoadPolicy.EAGER;
+            } else if(policy == LoadPolicy.BACKGROUND && handle.module.getProvidedKeys().isEmpty()) {
+                Log.w(TAG, "Module " + handle.name() + " is loaded in background but declares no keys, lookups will not wait for it");
+            }
+
+            if(policy == LoadPolicy.EAGER) {
+                eagerRoots.add(handle);
+            } else if(policy == LoadPolicy.BACKGROUND) {
+                backgroundRoots.add(handle);
+            }
+        }
+
+        markWithDependencies(eagerRoots, LoadPolicy.EAGER);
+        markWithDependencies(backgroundRoots, LoadPolicy.BACKGROUND);
+    }
+
+    private static void markWithDependencies(List<ModuleHandle> roots, LoadPolicy policy) {
+        Set<ModuleHandle> visited = new HashSet<>();
+        Deque<ModuleHandle> toVisit = new ArrayDeque<>(roots);
+        while (!toVisit.isEmpty()) {
+            ModuleHandle handle = toVisit.poll();
+            if(visited.add(handle) && handle.policy == LoadPolicy.ON_DEMAND) {
+                handle.policy = policy;
+                toVisit.addAll(handle.dependencies);
+            }
+        }
+    }
+
+    /**
+     * A module with its loading state
+     */
+    static final class ModuleHandle {
+        private static final int PENDING = 0;
+        private static final int LOADING = 1;
+        private static final int LOADED = 2;
+
+        final BaseModuleConfiguration module;
+        final List<ModuleHandle> dependencies = new ArrayList<>();
+        final List<ModuleHandle> dependents = new ArrayList<>();
+        final AtomicInteger remainingDependencies = new AtomicInteger();
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private final CountDownLatch loaded = new CountDownLatch(1);
+        private volatile Thread loadingThread;
+        /**
+         * The exception thrown by the setup of the module or of one of its dependencies
+         */
+        private volatile RuntimeException failure;
+        /**
+         * The policy actually used, starts on demand and is raised by the modules depending on it
+         */
+        LoadPolicy policy = LoadPolicy.ON_DEMAND;
+
+        ModuleHandle(BaseModuleConfiguration module) {
+            this.module = module;
+        }
+
+        String name() {
+            return module.getClass().getName();
+        }
+
+        boolean isLoaded() {
+            return state.get() == LOADED;
+        }
+
+        /**
+         * Loads the dependencies and then the module, once. If another thread is loading it waits the end
+         *
+         * @throws IllegalStateException if the setup of the module or of one of its dependencies has failed
+         */
+        void ensureLoaded(DependencyManager.ConfigurationDependencyLoader loader) {
+            if(isLoaded()) {
+                throwIfFailed();
+                return;
+            }
+
+            RuntimeException dependencyFailure = null;
+            try {
+                for (ModuleHandle dependency : dependencies) {
+                    dependency.ensureLoaded(loader);
+                }
+            } catch (RuntimeException e) {
+                dependencyFailure = e;
+            }
+
+            if(state.compareAndSet(PENDING, LOADING)) {
+                loadingThread = Thread.currentThread();
+                DependencyMetrics metrics = loader.getMetrics();
+                long start = metrics != null ? System.nanoTime() : 0;
+                try {
+                    if(dependencyFailure != null) {
+                        failure = dependencyFailure;
+                    } else {
+                        loader.registerInBatch(() -> module.onClassProviderSetup(loader));
+                    }
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "Exception loading module " + name(), e);
+                    failure = e;
+                } finally {
+                    if(metrics != null) {
+                        metrics.recordModuleSetup(name(), System.nanoTime() - start);
+                    }
+                    state.set(LOADED);
+                    loadingThread = null;
+                    loaded.countDown();
+                }
+            } else if(loadingThread != Thread.currentThread()) {
+                awaitLoaded();
+                return;
+            }
+            throwIfFailed();
+        }
+
+        /**
+         * Waits the end of the setup of the module, loaded by another thread
+         *
+         * @return false if the thread has been interrupted
+         * @throws IllegalStateException if the setup of the module has failed
+         */
+        boolean awaitLoaded() {
+            try {
+                loaded.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            throwIfFailed();
+            return true;
+        }
+
+        private void throwIfFailed() {
+            RuntimeException failure = this.failure;
+            if(failure != null) {
+                throw new IllegalStateException("Module " + name() + " failed to load", failure);
+            }
+        }
+    }
+
+    private static final class LoaderThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "ModuleLoader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
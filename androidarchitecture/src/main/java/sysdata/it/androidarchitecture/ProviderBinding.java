@@ -0,0 +1,42 @@
+package sysdata.it.androidarchitecture;
+
+import android.content.Context;
+import android.os.Bundle;
+
+/**
+ * Holds a {@link BaseClassProvider} together with the informations used to resolve it
+ */
+public final class ProviderBinding extends ScopedBinding {
+
+    final BaseClassProvider provider;
+
+    public ProviderBinding(BaseClassProvider provider, int priority, String componentGroup) {
+        this(provider, priority, componentGroup, ProviderScope.NONE);
+    }
+
+    public ProviderBinding(BaseClassProvider provider, int priority, String componentGroup, ProviderScope scope) {
+        super(priority, componentGroup, scope);
+        this.provider = provider;
+    }
+
+    public BaseClassProvider getProvider() {
+        return provider;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public String getComponentGroup() {
+        return componentGroup;
+    }
+
+    public ProviderScope getScope() {
+        return scope;
+    }
+
+    @Override
+    Object create(Object params, Context context) {
+        return provider.provideObject((Bundle) params, context);
+    }
+}
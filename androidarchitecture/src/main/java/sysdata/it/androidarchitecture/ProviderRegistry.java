@@ -0,0 +1,17 @@
+package sysdata.it.androidarchitecture;
+
+/**
+ * A static set of providers, usually generated at compile time from classes
+ * annotated with {@link ClassProvider}.
+ * Add it with {@link DependencyManager#addRegistry(ProviderRegistry)}.
+ */
+public interface ProviderRegistry {
+
+    /**
+     *
+     * @param key the key of the provider
+     * @param group the normalized group, never null
+     * @return the binding with the best priority, or null if the registry does not contain it
+     */
+    ProviderBinding findBinding(String key, String group);
+}
@@ -0,0 +1,27 @@
+package sysdata.it.androidarchitecture;
+
+/**
+ * Defines how long an object created by a {@link BaseClassProvider} is reused.
+ * Cached objects are created with the Bundle and Context of the first request.
+ */
+public enum ProviderScope {
+    /**
+     * A new object is provided on each request
+     */
+    NONE,
+    /**
+     * The object lives until its provider is unregistered
+     */
+    SINGLETON,
+    /**
+     * The object lives until its provider is unregistered or the group is released with
+     * {@link DependencyManager#releaseGroup(String)}
+     */
+    GROUP,
+    /**
+     * The object lives inside the {@link DependencyScope} passed to provideObject, usually owned by
+     * a {@link sysdata.it.androidarchitecture.viewmodel.BaseArchitectureViewModel}.
+     * Without a scope a new object is provided on each request
+     */
+    VIEW_MODEL
+}
@@ -0,0 +1,96 @@
+package sysdata.it.androidarchitecture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the registered providers.
+ * For each key it keeps the registrations sorted by priority and, for each (key, group) couple,
+ * the binding that wins the resolution.
+ * A new snapshot is built on each change by {@link DependencyManager.ConfigurationDependencyLoader}
+ * and published atomically, so it can be read from any thread without locks.
+ */
+final class ResolutionIndex {
+
+    static final ResolutionIndex EMPTY = new ResolutionIndex(Collections.<String, List<ProviderBinding>>emptyMap(),
+            Collections.<String, Map<String, ProviderBinding>>emptyMap());
+
+    private final Map<String, List<ProviderBinding>> registrations;
+    private final Map<String, Map<String, ProviderBinding>> resolved;
+
+    private ResolutionIndex(Map<String, List<ProviderBinding>> registrations, Map<String, Map<String, ProviderBinding>> resolved) {
+        this.registrations = registrations;
+        this.resolved = resolved;
+    }
+
+    ProviderBinding find(String key, String group) {
+        if(key == null) return null;
+
+        Map<String, ProviderBinding> groups = resolved.get(key);
+        return groups != null ? groups.get(group) : null;
+    }
+
+    List<ProviderBinding> registrations(String key) {
+        List<ProviderBinding> bindings = registrations.get(key);
+        return bindings != null ? bindings : Collections.<ProviderBinding>emptyList();
+    }
+
+    /**
+     * @return a builder starting from this index, to apply many changes with a single copy
+     */
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Mutable copy of an index, it must not be used after {@link #build()}
+     */
+    static final class Builder {
+        private final Map<String, List<ProviderBinding>> registrations;
+        private final Map<String, Map<String, ProviderBinding>> resolved;
+
+        private Builder(ResolutionIndex index) {
+            registrations = new HashMap<>(index.registrations);
+            resolved = new HashMap<>(index.resolved);
+        }
+
+        List<ProviderBinding> registrations(String key) {
+            List<ProviderBinding> bindings = registrations.get(key);
+            return bindings != null ? bindings : Collections.<ProviderBinding>emptyList();
+        }
+
+        /**
+         * @param key the key changed
+         * @param bindings the new registrations of the key, an empty list removes the key
+         */
+        Builder put(String key, List<ProviderBinding> bindings) {
+            if(bindings.isEmpty()) {
+                registrations.remove(key);
+                resolved.remove(key);
+                return this;
+            }
+
+            List<ProviderBinding> sorted = new ArrayList<>(bindings);
+            // stable sort: with same priority the first registered wins
+            Collections.sort(sorted, (first, second) -> first.priority < second.priority ? -1 : first.priority > second.priority ? 1 : 0);
+
+            Map<String, ProviderBinding> groups = new HashMap<>();
+            for (ProviderBinding binding : sorted) {
+                if(!groups.containsKey(binding.componentGroup)) {
+                    groups.put(binding.componentGroup, binding);
+                }
+            }
+
+            registrations.put(key, Collections.unmodifiableList(sorted));
+            resolved.put(key, Collections.unmodifiableMap(groups));
+            return this;
+        }
+
+        ResolutionIndex build() {
+            return new ResolutionIndex(Collections.unmodifiableMap(registrations), Collections.unmodifiableMap(resolved));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package sysdata.it.androidarchitecture;
+
+import android.content.Context;
+
+/**
+ * Base of the registrations able to cache the provided object following their {@link ProviderScope}
+ */
+abstract class ScopedBinding {
+
+    final int priority;
+    final String componentGroup;
+    final ProviderScope scope;
+    private final DependencyScope.ScopedInstance instance = new DependencyScope.ScopedInstance();
+
+    ScopedBinding(int priority, String componentGroup, ProviderScope scope) {
+        this.priority = priority;
+        this.componentGroup = componentGroup;
+        this.scope = scope != null ? scope : ProviderScope.NONE;
+    }
+
+    /**
+     * Creates a new object, without caching it
+     */
+    abstract Object create(Object params, Context context);
+
+    /**
+     * Creates a new object recording its construction time if metrics are enabled
+     */
+    Object construct(String key, Object params, Context context, DependencyMetrics metrics) {
+        if(metrics == null) {
+            return create(params, context);
+        }
+
+        long start = System.nanoTime();
+        try {
+            return create(params, context);
+        } finally {
+            metrics.recordConstruction(key, System.nanoTime() - start);
+        }
+    }
+
+    Object resolve(String key, Object params, Context context, DependencyScope dependencyScope, DependencyManager.ConfigurationDependencyLoader loader) {
+        DependencyMetrics metrics = loader.getMetrics();
+        switch (scope) {
+            case SINGLETON:
+            case GROUP:
+                boolean wasCreated = instance.isCreated();
+                Object value = instance.obtain(this, key, params, context, metrics);
+                if(!wasCreated && value != null) {
+                    loader.onScopedInstanceCreated(this);
+                }
+                return value;
+            case VIEW_MODEL:
+                if(dependencyScope != null) {
+                    return dependencyScope.obtain(this, key, params, context, metrics);
+                }
+                return construct(key, params, context, metrics);
+            default:
+                return construct(key, params, context, metrics);
+        }
+    }
+
+    void releaseInstance() {
+        instance.release();
+    }
+}
@@ -0,0 +1,190 @@
+package sysdata.it.androidarchitecture;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records the keys resolved in the first seconds after {@link DependencyManager#loadElements()} and
+ * persists them. On the next launch the recorded keys are resolved again on a low priority thread, so
+ * scoped objects and classes are ready when the UI asks for them.
+ *
+ * Only the resolutions made without parameters and context create scoped objects in advance, the
+ * other ones load the classes involved, so a prewarm never caches an object built with wrong parameters.
+ */
+final class StartupProfile {
+
+    private static final String TAG = "StartupProfile";
+    static final String FILE_NAME = "dependency_startup_profile";
+
+    private static final String KIND_PROVIDER = "P";
+    private static final String KIND_TYPED = "T";
+    private static final String SEPARATOR = "\t";
+
+    private final File file;
+    private final long windowMillis;
+    private final Set<String> recordedIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final ConcurrentLinkedQueue<Entry> recorded = new ConcurrentLinkedQueue<>();
+    private volatile boolean recording;
+    private boolean started;
+
+    StartupProfile(File directory, long windowMillis) {
+        this.file = new File(directory, FILE_NAME);
+        this.windowMillis = windowMillis;
+    }
+
+    boolean isRecording() {
+        return recording;
+    }
+
+    void recordProvider(String key, String group, Object value, boolean withoutParams) {
+        record(new Entry(KIND_PROVIDER, key, group, value, withoutParams));
+    }
+
+    void recordTyped(Key<?, ?> key, Object value, boolean withoutParams) {
+        record(new Entry(KIND_TYPED, key.getType().getName(), key.getName(), value, withoutParams));
+    }
+
+    private void record(Entry entry) {
+        if(entry.isValid() && recordedIds.add(entry.id())) {
+            recorded.add(entry);
+        }
+    }
+
+    /**
+     * Starts recording and prewarms the previous profile, only once
+     */
+    synchronized void start(DependencyManager.ConfigurationDependencyLoader loader) {
+        if(started) return;
+        started = true;
+
+        final long recordingEnd = System.currentTimeMillis() + windowMillis;
+        recording = true;
+
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+            prewarm(loader, read());
+
+            long remaining = recordingEnd - System.currentTimeMillis();
+            if(remaining > 0) {
+                try {
+                    Thread.sleep(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            recording = false;
+            write();
+        }, "StartupProfile");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void prewarm(DependencyManager.ConfigurationDependencyLoader loader, List<Entry> entries) {
+        for (Entry entry : entries) {
+            try {
+                if(entry.withoutParams) {
+                    if(KIND_PROVIDER.equals(entry.kind)) {
+                        loader.prewarm(entry.key, entry.group);
+                    } else {
+                        loader.prewarm(Key.of(Class.forName(entry.key), entry.group));
+                    }
+                }
+                if(entry.valueClass != null) {
+                    Class.forName(entry.valueClass);
+                }
+            } catch (Throwable e) {
+                Log.w(TAG, "Unable to prewarm " + entry.id() + ": " + e);
+            }
+        }
+    }
+
+    private List<Entry> read() {
+        List<Entry> entries = new ArrayList<>();
+        if(!file.exists()) {
+            return entries;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry = Entry.parse(line);
+                if(entry != null) {
+                    entries.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to read startup profile: " + e);
+        }
+        return entries;
+    }
+
+    private void write() {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (Entry entry : recorded) {
+                writer.write(entry.format());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Unable to write startup profile: " + e);
+        }
+    }
+
+    private static final class Entry {
+        final String kind;
+        final String key;
+        final String group;
+        final String valueClass;
+        final boolean withoutParams;
+
+        Entry(String kind, String key, String group, Object value, boolean withoutParams) {
+            this(kind, key, group, value != null ? value.getClass().getName() : null, withoutParams);
+        }
+
+        Entry(String kind, String key, String group, String valueClass, boolean withoutParams) {
+            this.kind = kind;
+            this.key = key;
+            this.group = group;
+            this.valueClass = valueClass;
+            this.withoutParams = withoutParams;
+        }
+
+        boolean isValid() {
+            return key != null && isWritable(key) && (group == null || isWritable(group));
+        }
+
+        private static boolean isWritable(String value) {
+            return value.indexOf('\t') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0;
+        }
+
+        String id() {
+            return kind + SEPARATOR + key + SEPARATOR + (group != null ? group : "");
+        }
+
+        String format() {
+            return id() + SEPARATOR + (valueClass != null ? valueClass : "") + SEPARATOR + (withoutParams ? "1" : "0");
+        }
+
+        static Entry parse(String line) {
+            String[] parts = line.split(SEPARATOR, -1);
+            if(parts.length != 5 || parts[1].isEmpty()) {
+                return null;
+            }
+            return new Entry(parts[0], parts[1], parts[2].isEmpty() ? null : parts[2],
+                    parts[3].isEmpty() ? null : parts[3], "1".equals(parts[4]));
+        }
+    }
+}
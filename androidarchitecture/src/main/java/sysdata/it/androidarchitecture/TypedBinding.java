@@ -0,0 +1,24 @@
+package sysdata.it.androidarchitecture;
+
+import android.content.Context;
+
+/**
+ * Holds a {@link TypedProvider} together with the informations used to resolve it
+ */
+final class TypedBinding extends ScopedBinding {
+
+    final Key<?, ?> key;
+    final TypedProvider<Object, ?> provider;
+
+    @SuppressWarnings("unchecked")
+    TypedBinding(Key<?, ?> key, TypedProvider<?, ?> provider, int priority, ProviderScope scope) {
+        super(priority, DependencyManager.DEFAULT_GROUP, scope);
+        this.key = key;
+        this.provider = (TypedProvider<Object, ?>) provider;
+    }
+
+    @Override
+    Object create(Object params, Context context) {
+        return provider.provide(params);
+    }
+}
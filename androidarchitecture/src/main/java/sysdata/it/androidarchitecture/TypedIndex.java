@@ -0,0 +1,94 @@
+package sysdata.it.androidarchitecture;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the registered {@link TypedProvider}s, the typed counterpart of {@link ResolutionIndex}.
+ * Keys without name are indexed also by type, so a lookup by class does not need to build a {@link Key}.
+ */
+final class TypedIndex {
+
+    static final TypedIndex EMPTY = new TypedIndex(Collections.<Key<?, ?>, List<TypedBinding>>emptyMap(),
+            Collections.<Key<?, ?>, TypedBinding>emptyMap(), Collections.<Class<?>, TypedBinding>emptyMap());
+
+    private final Map<Key<?, ?>, List<TypedBinding>> registrations;
+    private final Map<Key<?, ?>, TypedBinding> resolved;
+    private final Map<Class<?>, TypedBinding> resolvedByType;
+
+    private TypedIndex(Map<Key<?, ?>, List<TypedBinding>> registrations, Map<Key<?, ?>, TypedBinding> resolved, Map<Class<?>, TypedBinding> resolvedByType) {
+        this.registrations = registrations;
+        this.resolved = resolved;
+        this.resolvedByType = resolvedByType;
+    }
+
+    TypedBinding find(Key<?, ?> key) {
+        return resolved.get(key);
+    }
+
+    TypedBinding find(Class<?> type) {
+        return resolvedByType.get(type);
+    }
+
+    List<TypedBinding> registrations(Key<?, ?> key) {
+        List<TypedBinding> bindings = registrations.get(key);
+        return bindings != null ? bindings : Collections.<TypedBinding>emptyList();
+    }
+
+    /**
+     * @return a builder starting from this index, to apply many changes with a single copy
+     */
+    Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Mutable copy of an index, it must not be used after {@link #build()}
+     */
+    static final class Builder {
+        private final Map<Key<?, ?>, List<TypedBinding>> registrations;
+        private final Map<Key<?, ?>, TypedBinding> resolved;
+        private final Map<Class<?>, TypedBinding> resolvedByType;
+
+        private Builder(TypedIndex index) {
+            registrations = new HashMap<>(index.registrations);
+            resolved = new HashMap<>(index.resolved);
+            resolvedByType = new HashMap<>(index.resolvedByType);
+        }
+
+        List<TypedBinding> registrations(Key<?, ?> key) {
+            List<TypedBinding> bindings = registrations.get(key);
+            return bindings != null ? bindings : Collections.<TypedBinding>emptyList();
+        }
+
+        Builder put(Key<?, ?> key, List<TypedBinding> bindings) {
+            if(bindings.isEmpty()) {
+                registrations.remove(key);
+                resolved.remove(key);
+                if(key.getName() == null) {
+                    resolvedByType.remove(key.getType());
+                }
+                return this;
+            }
+
+            List<TypedBinding> sorted = new ArrayList<>(bindings);
+            // stable sort: with same priority the first registered wins
+            Collections.sort(sorted, (first, second) -> first.priority < second.priority ? -1 : first.priority > second.priority ? 1 : 0);
+
+            registrations.put(key, Collections.unmodifiableList(sorted));
+            resolved.put(key, sorted.get(0));
+            if(key.getName() == null) {
+                resolvedByType.put(key.getType(), sorted.get(0));
+            }
+            return this;
+        }
+
+        TypedIndex build() {
+            return new TypedIndex(Collections.unmodifiableMap(registrations), Collections.unmodifiableMap(resolved),
+                    Collections.unmodifiableMap(resolvedByType));
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package sysdata.it.androidarchitecture;
+
+/**
+ * Provides objects of a known type from a plain parameters object, without Bundle and reflection.
+ * Register it with a {@link Key} using {@link DependencyManager.ConfigurationDependencyLoader#registerProvider(Key, TypedProvider, int, ProviderScope)}.
+ *
+ * @param <P> the parameters type, use {@link Void} when no parameters are needed
+ * @param <T> the type of the provided object
+ */
+public interface TypedProvider<P, T> {
+    T provide(P params);
+}
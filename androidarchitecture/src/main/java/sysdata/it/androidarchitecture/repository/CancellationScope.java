@@ -0,0 +1,134 @@
+package sysdata.it.androidarchitecture.repository;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.disposables.Disposable;
+
+/**
+ * A tree of subscriptions cancelled together, usually owned by a view model.
+ * <p>
+ * Each execution of a use case runs in a child scope of the one {@link #current()} when it starts, the
+ * use cases and repositories built inside register their own subscriptions in it. Cancelling a scope
+ * disposes its subscriptions and its children, a subscription added to a cancelled scope is disposed
+ * at once.
+ * </p>
+ */
+public final class CancellationScope implements Disposable {
+
+    private static final ThreadLocal<CancellationScope> current = new ThreadLocal<>();
+
+    private final CancellationScope parent;
+    private final CompositeDisposable disposables = new CompositeDisposable();
+
+    private CancellationScope(CancellationScope parent) {
+        this.parent = parent;
+    }
+
+    public static CancellationScope root() {
+        return new CancellationScope(null);
+    }
+
+    /**
+     * @return the scope of the work being started on this thread, null if none
+     */
+    public static CancellationScope current() {
+        return current.get();
+    }
+
+    /**
+     * Calls the given code with the scope as {@link #current()}
+     */
+    public static <T> T callWith(CancellationScope scope, Callable<T> callable) throws Exception {
+        CancellationScope previous = current.get();
+        current.set(scope);
+        try {
+            return callable.call();
+        } finally {
+            if(previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * @return a scope cancelled with this one, cancelled already if this one is
+     */
+    public CancellationScope child() {
+        CancellationScope child = new CancellationScope(this);
+        disposables.add(child);
+        return child;
+    }
+
+    /**
+     * Registers a subscription, remove it when it terminates to not keep it until the scope is cancelled
+     *
+     * @return false if the scope is cancelled, the subscription has been disposed
+     */
+    public boolean add(Disposable disposable) {
+        return disposables.add(disposable);
+    }
+
+    /**
+     * Forgets a subscription without disposing it
+     */
+    public void remove(Disposable disposable) {
+        disposables.delete(disposable);
+    }
+
+    /**
+     * Disposes the subscriptions and the children of the scope, and detaches it from its parent
+     */
+    public void cancel() {
+        if(parent != null) {
+            parent.remove(this);
+        }
+        disposables.dispose();
+    }
+
+    public boolean isCancelled() {
+        return disposables.isDisposed();
+    }
+
+    @Override
+    public void dispose() {
+        cancel();
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return isCancelled();
+    }
+
+    /**
+     * @return the subscriptions registered and not yet terminated, each child scope counts as one whatever
+     * it holds
+     */
+    public int size() {
+        return disposables.size();
+    }
+
+    /**
+     * Registers each subscription of a cold observable for its lifetime: cancelling the scope disposes the
+     * upstream, the termination removes it from the scope.
+     */
+    public <T> ObservableTransformer<T, T> bind() {
+        return upstream -> Observable.defer(() -> {
+            AtomicReference<Disposable> registered = new AtomicReference<>();
+            return upstream
+                    .doOnSubscribe(d -> {
+                        registered.set(d);
+                        add(d);
+                    })
+                    .doFinally(() -> {
+                        Disposable d = registered.get();
+                        if(d != null) remove(d);
+                    });
+        });
+    }
+}
@@ -0,0 +1,184 @@
+package sysdata.it.androidarchitecture.repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Stops calling a failing backend: after the given number of consecutive failures the circuit opens and
+ * the calls fail fast with {@link CircuitOpenException}. Once the open time is elapsed a single trial
+ * call goes through, its success closes the circuit and its failure opens it again.
+ * <p>
+ * Circuits are shared by key, usually a use case class or a resource, the first registration of a key
+ * sets its configuration. Time is read from the clock scheduler, a
+ * {@link io.reactivex.schedulers.TestScheduler} moves it in virtual time.
+ * </p>
+ */
+public final class CircuitBreaker {
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_MILLIS = 30000;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    private final String key;
+    private final int failureThreshold;
+    private final long openMillis;
+    private final Scheduler clock;
+
+    // guarded by this
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean trialRunning;
+
+    private CircuitBreaker(String key, int failureThreshold, long openMillis, Scheduler clock) {
+        this.key = key;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = Math.max(0, openMillis);
+        this.clock = clock != null ? clock : Schedulers.computation();
+    }
+
+    public static CircuitBreaker forKey(String key) {
+        return forKey(key, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_MILLIS, Schedulers.computation());
+    }
+
+    public static CircuitBreaker forKey(String key, int failureThreshold, long openMillis, Scheduler clock) {
+        CircuitBreaker breaker = breakers.get(key);
+        if(breaker == null) {
+            CircuitBreaker created = new CircuitBreaker(key, failureThreshold, openMillis, clock);
+            breaker = breakers.putIfAbsent(key, created);
+            if(breaker == null) {
+                breaker = created;
+            }
+        }
+        return breaker;
+    }
+
+    public static CircuitBreaker forClass(Class<?> keyClass) {
+        return forKey(keyClass.getName());
+    }
+
+    /**
+     * Forgets all the circuits, for tests
+     */
+    public static void clearAll() {
+        breakers.clear();
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public synchronized State getState() {
+        if(state == State.OPEN && isOpenTimeElapsed()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Closes the circuit, forgetting the failures
+     */
+    public synchronized void reset() {
+        state = State.CLOSED;
+        failures = 0;
+        trialRunning = false;
+    }
+
+    /**
+     * @return true if a call can be made now
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if(!isOpenTimeElapsed()) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialRunning = true;
+                return true;
+            default:
+                if(trialRunning) {
+                    return false;
+                }
+                trialRunning = true;
+                return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        reset();
+    }
+
+    synchronized void onFailure() {
+        failures++;
+        if(state == State.HALF_OPEN || failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.now(TimeUnit.MILLISECONDS);
+            trialRunning = false;
+        }
+    }
+
+    /**
+     * A call disposed before its result lets another trial go through
+     */
+    synchronized void onCancel() {
+        if(state == State.HALF_OPEN) {
+            trialRunning = false;
+        }
+    }
+
+    private boolean isOpenTimeElapsed() {
+        return clock.now(TimeUnit.MILLISECONDS) - openedAt >= openMillis;
+    }
+
+    /**
+     * Guards a cold observable: each subscription is a call, refused while the circuit is open. The first
+     * value that is not a running {@link Resource} reports the outcome, a failed Resource counts as a
+     * failure and any other value as a success. Without such a value the completion counts as a success
+     * and an error as a failure.
+     */
+    public <T> ObservableTransformer<T, T> protect() {
+        return upstream -> Observable.defer(() -> {
+            if(!tryAcquire()) {
+                return Observable.error(new CircuitOpenException(key));
+            }
+
+            AtomicBoolean reported = new AtomicBoolean();
+            return upstream
+                    .doOnNext(value -> {
+                        if(value instanceof Resource && ((Resource) value).status == Resource.Status.RUNNING) {
+                            return;
+                        }
+                        if(reported.compareAndSet(false, true)) {
+                            if(value instanceof Resource && ((Resource) value).status == Resource.Status.FAILED) {
+                                onFailure();
+                            } else {
+                                onSuccess();
+                            }
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        if(reported.compareAndSet(false, true)) onSuccess();
+                    })
+                    .doOnError(error -> {
+                        if(reported.compareAndSet(false, true)) onFailure();
+                    })
+                    .doOnDispose(() -> {
+                        if(reported.compareAndSet(false, true)) onCancel();
+                    });
+        });
+    }
+}
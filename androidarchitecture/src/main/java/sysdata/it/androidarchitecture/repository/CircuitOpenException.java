@@ -0,0 +1,18 @@
+package sysdata.it.androidarchitecture.repository;
+
+/**
+ * The error of a call refused by an open {@link CircuitBreaker}, without reaching the backend
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final String key;
+
+    public CircuitOpenException(String key) {
+        super("Circuit " + key + " is open");
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,129 @@
+package sysdata.it.androidarchitecture.repository;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * The instant after which nobody waits for a work anymore.
+ * <p>
+ * A deadline is absolute: the use cases and repositories built while it is {@link #current()} inherit it,
+ * so they get the budget remaining, not a new one. Time is read from the clock scheduler, a
+ * {@link io.reactivex.schedulers.TestScheduler} moves it in virtual time.
+ * </p>
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> current = new ThreadLocal<>();
+
+    private final long expiresAtMillis;
+    private final Scheduler clock;
+
+    private Deadline(long expiresAtMillis, Scheduler clock) {
+        this.expiresAtMillis = expiresAtMillis;
+        this.clock = clock;
+    }
+
+    public static Deadline after(long millis) {
+        return after(millis, Schedulers.computation());
+    }
+
+    public static Deadline after(long millis, Scheduler clock) {
+        return new Deadline(clock.now(TimeUnit.MILLISECONDS) + Math.max(0, millis), clock);
+    }
+
+    /**
+     * @return the deadline of the work being built on this thread, null if none
+     */
+    public static Deadline current() {
+        return current.get();
+    }
+
+    /**
+     * Calls the given code with the deadline as {@link #current()}
+     */
+    public static <T> T callWith(Deadline deadline, Callable<T> callable) throws Exception {
+        Deadline previous = current.get();
+        current.set(deadline);
+        try {
+            return callable.call();
+        } finally {
+            if(previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the deadline coming first, a null one never comes
+     */
+    public static Deadline earliest(Deadline first, Deadline second) {
+        if(first == null) return second;
+        if(second == null) return first;
+        return first.remainingMillis() <= second.remainingMillis() ? first : second;
+    }
+
+    /**
+     * @return this deadline or the one in the given time, whichever comes first
+     */
+    public Deadline within(long millis) {
+        return earliest(this, after(millis, clock));
+    }
+
+    public long remainingMillis() {
+        return expiresAtMillis - clock.now(TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+    /**
+     * Bounds the whole duration of a cold observable: when the deadline expires the upstream is disposed
+     * and {@link DeadlineExceededException} is emitted.
+     */
+    public <T> ObservableTransformer<T, T> enforce() {
+        return upstream -> Observable.defer(() -> {
+            long remaining = remainingMillis();
+            if(remaining <= 0) {
+                return Observable.error(new DeadlineExceededException("Deadline expired before starting"));
+            }
+
+            AtomicBoolean expired = new AtomicBoolean();
+            Observable<Long> expiry = Observable.timer(remaining, TimeUnit.MILLISECONDS, clock)
+                    .doOnNext(tick -> expired.set(true));
+            return upstream.takeUntil(expiry)
+                    .concatWith(Observable.defer(() -> expired.get()
+                            ? Observable.<T>error(new DeadlineExceededException("Deadline expired after " + remaining + " ms"))
+                            : Observable.<T>empty()));
+        });
+    }
+
+    /**
+     * Bounds only the wait of the first value or of the completion, for observables that keep emitting
+     * like a db query observed for changes. When the deadline expires first the upstream is disposed and
+     * {@link DeadlineExceededException} is emitted.
+     */
+    public <T> ObservableTransformer<T, T> enforceFirst() {
+        return upstream -> Observable.defer(() -> {
+            long remaining = remainingMillis();
+            if(remaining <= 0) {
+                return Observable.error(new DeadlineExceededException("Deadline expired before starting"));
+            }
+            return upstream.timeout(Observable.timer(remaining, TimeUnit.MILLISECONDS, clock), value -> Observable.never(),
+                    Observable.error(new DeadlineExceededException("No value within " + remaining + " ms")));
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remainingMillis=" + remainingMillis() + "}";
+    }
+}
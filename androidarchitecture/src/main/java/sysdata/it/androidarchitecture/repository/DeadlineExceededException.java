@@ -0,0 +1,11 @@
+package sysdata.it.androidarchitecture.repository;
+
+/**
+ * The error of a work still running when its {@link Deadline} expired, the work has been cancelled
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
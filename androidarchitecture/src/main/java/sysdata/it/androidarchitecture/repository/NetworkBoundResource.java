@@ -23,6 +23,12 @@ public abstract class NetworkBoundResource<ResultType> {
 
     private final MediatorLiveData<Resource<ResultType>> result = new MediatorLiveData<>();
 
+    /**
+     * The scope of the subscriptions made by the resource, by default the current one of the use case
+     * building it
+     */
+    private CancellationScope cancellationScope = CancellationScope.current();
+
     /**
      * Instantiates a new Network bound resource.
      */
@@ -131,13 +137,30 @@ public abstract class NetworkBoundResource<ResultType> {
     }
 
     private void saveResultAndReInit(Resource<ResultType> response) {
-        Observable.just(response)
+        bindToScope(Observable.just(response))
                 .doOnNext(resp -> saveCallResult(resp.data))
                 .doOnNext(b -> result.addSource(loadFromDb(),
                         newData -> result.setValue(Resource.success(newData))))
                 .subscribe();
     }
 
+    protected CancellationScope getCancellationScope() {
+        return cancellationScope;
+    }
+
+    protected void setCancellationScope(CancellationScope cancellationScope) {
+        this.cancellationScope = cancellationScope;
+    }
+
+    /**
+     * Binds the subscriptions of an observable to the scope of the resource: they are disposed when it is
+     * cancelled, so the screen closed does not keep db queries and calls running
+     */
+    protected <T> Observable<T> bindToScope(Observable<T> observable) {
+        CancellationScope scope = cancellationScope;
+        return scope != null ? observable.compose(scope.<T>bind()) : observable;
+    }
+
     /**
      * Gets as live data.
      *
@@ -225,6 +248,55 @@ public abstract class NetworkBoundResource<ResultType> {
             return this;
         }
 
+        /**
+         * Retries the failed calls of {@link #onCreateCall(Action3)} following the policy.
+         *
+         * @param retryPolicy the retry policy
+         * @return the builder
+         */
+        public Builder<ResultType> retry(RetryPolicy retryPolicy) {
+            generatedNetworkBoundResource.setRetryPolicy(retryPolicy);
+            return this;
+        }
+
+        /**
+         * Guards the calls of {@link #onCreateCall(Action3)} with a circuit: while it is open the call is not
+         * made and an error resource with the data loaded from db is emitted.
+         *
+         * @param circuitBreaker the circuit breaker, usually shared by resource key
+         * @return the builder
+         */
+        public Builder<ResultType> circuitBreaker(CircuitBreaker circuitBreaker) {
+            generatedNetworkBoundResource.setCircuitBreaker(circuitBreaker);
+            return this;
+        }
+
+        /**
+         * Bounds db and network steps of {@link Builder#buildObservable()} with a deadline, by default the
+         * {@link Deadline#current()} one of the use case building the resource. When it expires the step is
+         * cancelled and an error resource is emitted, with the data loaded from db if any.
+         *
+         * @param deadline the deadline
+         * @return the builder
+         */
+        public Builder<ResultType> deadline(Deadline deadline) {
+            generatedNetworkBoundResource.setDeadline(deadline);
+            return this;
+        }
+
+        /**
+         * Binds the subscriptions made by the resource to a scope, by default the
+         * {@link CancellationScope#current()} one of the use case building the resource. The observable of
+         * {@link Builder#buildObservable()} is cancelled by its own subscriber.
+         *
+         * @param cancellationScope the scope, usually the one of the view model
+         * @return the builder
+         */
+        public Builder<ResultType> cancellationScope(CancellationScope cancellationScope) {
+            generatedNetworkBoundResource.setCancellationScope(cancellationScope);
+            return this;
+        }
+
         /**
          * Build network bound resource.
          *
@@ -337,6 +409,18 @@ public abstract class NetworkBoundResource<ResultType> {
          * The Should save result.
          */
         WeakReference<Builder.Action4<ResultType>> shouldSaveResult;
+        /**
+         * The retry policy of the calls.
+         */
+        RetryPolicy retryPolicy;
+        /**
+         * The circuit guarding the calls.
+         */
+        CircuitBreaker circuitBreaker;
+        /**
+         * The deadline of the steps.
+         */
+        Deadline deadline;
 
         /**
          * Sets save call result action.
@@ -383,6 +467,74 @@ public abstract class NetworkBoundResource<ResultType> {
             this.shouldSaveResult = new WeakReference<>(shouldSaveResult);
         }
 
+        /**
+         * Sets retry policy.
+         *
+         * @param retryPolicy the retry policy
+         */
+        public void setRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+        }
+
+        /**
+         * Sets circuit breaker.
+         *
+         * @param circuitBreaker the circuit breaker
+         */
+        public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        /**
+         * Sets deadline.
+         *
+         * @param deadline the deadline
+         */
+        public void setDeadline(Deadline deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Bounds a network call with the deadline, its expiry gives an error resource with the cached data
+         */
+        private Observable<Resource<ResultType>> boundCall(Observable<Resource<ResultType>> call, ResultType cachedData, Deadline deadline) {
+            if(deadline == null) {
+                return call;
+            }
+            return call.compose(deadline.enforce())
+                    .onErrorResumeNext((Throwable e) -> e instanceof DeadlineExceededException
+                            ? Observable.just(Resource.error(e.getMessage(), cachedData, e))
+                            : Observable.<Resource<ResultType>>error(e));
+        }
+
+        private boolean isGuarded() {
+            return retryPolicy != null || circuitBreaker != null;
+        }
+
+        /**
+         * Applies retry policy and circuit breaker to a call. An open circuit gives an error resource with
+         * the cached data, when the call finally fails {@link #onFetchFailed()} is called if requested.
+         */
+        private Observable<Resource<ResultType>> guardCall(Observable<Resource<ResultType>> call, ResultType cachedData, boolean notifyFailure) {
+            if(!isGuarded()) {
+                return call;
+            }
+
+            Observable<Resource<ResultType>> guarded = call;
+            if(circuitBreaker != null) {
+                guarded = guarded.compose(circuitBreaker.protect());
+            }
+            if(retryPolicy != null) {
+                guarded = guarded.compose(retryPolicy.apply());
+            }
+            if(notifyFailure) {
+                guarded = guarded.doOnError(e -> onFetchFailed());
+            }
+            return guarded.onErrorResumeNext((Throwable e) -> e instanceof CircuitOpenException
+                    ? Observable.just(Resource.error(e.getMessage(), cachedData, e))
+                    : Observable.<Resource<ResultType>>error(e));
+        }
+
         @Override
         protected void saveCallResult(@NonNull ResultType item) {
             if(saveCallResultAction != null && saveCallResultAction.get() != null) {
@@ -417,7 +569,7 @@ public abstract class NetworkBoundResource<ResultType> {
                 returnValue = new MutableLiveData<>();
 
                 Observable<ResultType> resultTypeObservable = loadFromDBAction.get().doAction();
-                resultTypeObservable.subscribe(returnValue::postValue);
+                bindToScope(resultTypeObservable).subscribe(returnValue::postValue);
             }
             return returnValue;
         }
@@ -429,8 +581,17 @@ public abstract class NetworkBoundResource<ResultType> {
             if(createCallAction != null && createCallAction.get() != null) {
                 returnValue = new MutableLiveData<>();
 
-                Observable<Resource<ResultType>> resultTypeObservable = createCallAction.get().doAction();
-                resultTypeObservable.subscribe(returnValue::postValue);
+                Builder.Action3<ResultType> action = createCallAction.get();
+                if(isGuarded()) {
+                    // failures are notified by fetchFromNetwork through the error resource
+                    MutableLiveData<Resource<ResultType>> response = returnValue;
+                    bindToScope(guardCall(Observable.defer(action::doAction), null, false))
+                            .subscribe(response::postValue,
+                                    e -> response.postValue(Resource.error(String.valueOf(e.getMessage()), e)));
+                } else {
+                    Observable<Resource<ResultType>> resultTypeObservable = action.doAction();
+                    bindToScope(resultTypeObservable).subscribe(returnValue::postValue);
+                }
             }
             return returnValue;
         }
@@ -446,13 +607,21 @@ public abstract class NetworkBoundResource<ResultType> {
 
             Observable<Resource<ResultType>> networkResourceObservable = Observable.empty();
             Observable<ResultType> oLoadFromDbCall = Observable.empty();
+            // an absolute instant, the steps share the budget remaining
+            Deadline stepsDeadline = Deadline.earliest(deadline, Deadline.current());
 
             if(loadFromDBAction != null && loadFromDBAction.get() != null) {
                 oLoadFromDbCall = loadFromDBAction.get().doAction();
+                if(stepsDeadline != null) {
+                    oLoadFromDbCall = oLoadFromDbCall.compose(stepsDeadline.enforceFirst());
+                }
             }
 
             if(createCallAction != null && createCallAction.get() != null) {
-                networkResourceObservable = createCallAction.get().doAction().doOnNext(resultTypeResource -> {
+                Builder.Action3<ResultType> action = createCallAction.get();
+                // a guarded call is built again by each retry
+                Observable<Resource<ResultType>> call = isGuarded() ? Observable.defer(action::doAction) : action.doAction();
+                networkResourceObservable = call.doOnNext(resultTypeResource -> {
                     if (shouldSaveResult != null && shouldSaveResult.get() != null) {
                         boolean shouldSave = shouldSaveResult.get().doAction(resultTypeResource.data);
                         if (saveCallResultAction != null && saveCallResultAction.get() != null && shouldSave) {
@@ -473,9 +642,12 @@ public abstract class NetworkBoundResource<ResultType> {
                 if (!shouldFetchValue)
                     return Observable.just(Resource.success(resultType));
 
-                return finalNetworkResourceObservable;
+                return boundCall(guardCall(finalNetworkResourceObservable, resultType, true), resultType, stepsDeadline);
 
-            }).switchIfEmpty(finalNetworkResourceObservable);
+            }).switchIfEmpty(boundCall(guardCall(finalNetworkResourceObservable, null, true), null, stepsDeadline))
+                    .onErrorResumeNext((Throwable e) -> e instanceof DeadlineExceededException
+                            ? Observable.just(Resource.error(e.getMessage(), null, e))
+                            : Observable.<Resource<ResultType>>error(e));
 
             return Observable.concat(Observable.just(Resource.loading(null)) ,resourceObservable);
         }
@@ -0,0 +1,158 @@
+package sysdata.it.androidarchitecture.repository;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableTransformer;
+import io.reactivex.Scheduler;
+import io.reactivex.functions.Predicate;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Resubscribes a failed call with an exponential, jittered backoff: the n-th retry waits
+ * {@code initialDelay * multiplier^(n-1)}, capped to the max delay, minus a random share of it up to the
+ * jitter factor, so that clients failing together do not retry together.
+ * <p>
+ * Only the errors accepted by the predicate are retried, {@link CircuitOpenException} never is. Delays run
+ * on the scheduler of the policy, a {@link io.reactivex.schedulers.TestScheduler} moves them in virtual time.
+ * </p>
+ */
+public final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialDelayMillis;
+    private final long maxDelayMillis;
+    private final double multiplier;
+    private final double jitter;
+    private final Predicate<Throwable> retryOn;
+    private final Scheduler scheduler;
+    private final Random random;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialDelayMillis = builder.initialDelayMillis;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.multiplier = builder.multiplier;
+        this.jitter = builder.jitter;
+        this.retryOn = builder.retryOn;
+        this.scheduler = builder.scheduler;
+        this.random = builder.random;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return the delay before the given retry, starting from 1, without jitter
+     */
+    public long getBackoffMillis(int retry) {
+        double delay = initialDelayMillis * Math.pow(multiplier, Math.max(0, retry - 1));
+        return (long) Math.min(maxDelayMillis, delay);
+    }
+
+    long getJitteredDelayMillis(int retry) {
+        long backoff = getBackoffMillis(retry);
+        if(jitter <= 0) {
+            return backoff;
+        }
+        double share;
+        synchronized (random) {
+            share = random.nextDouble();
+        }
+        return backoff - (long) (backoff * jitter * share);
+    }
+
+    boolean shouldRetry(Throwable error) {
+        if(error instanceof CircuitOpenException) {
+            return false;
+        }
+        try {
+            return retryOn.test(error);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Applies the policy to a cold observable, every retry subscribes it again
+     */
+    public <T> ObservableTransformer<T, T> apply() {
+        return upstream -> upstream.retryWhen(errors -> {
+            int[] retries = new int[1];
+            return errors.flatMap(error -> {
+                retries[0]++;
+                if(retries[0] >= maxAttempts || !shouldRetry(error)) {
+                    return Observable.error(error);
+                }
+                return Observable.timer(getJitteredDelayMillis(retries[0]), TimeUnit.MILLISECONDS, scheduler);
+            });
+        });
+    }
+
+    public static final class Builder {
+
+        int maxAttempts = 3;
+        long initialDelayMillis = 500;
+        long maxDelayMillis = 30000;
+        double multiplier = 2;
+        double jitter = 0.5;
+        Predicate<Throwable> retryOn = error -> true;
+        Scheduler scheduler = Schedulers.computation();
+        Random random = new Random();
+
+        /**
+         * Calls made at most, the first one included
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = Math.max(1, maxAttempts);
+            return this;
+        }
+
+        public Builder backoff(long initialDelayMillis, long maxDelayMillis) {
+            this.initialDelayMillis = Math.max(0, initialDelayMillis);
+            this.maxDelayMillis = Math.max(this.initialDelayMillis, maxDelayMillis);
+            return this;
+        }
+
+        public Builder multiplier(double multiplier) {
+            this.multiplier = Math.max(1, multiplier);
+            return this;
+        }
+
+        /**
+         * Share of each delay removed at random, from 0 (no jitter) to 1
+         */
+        public Builder jitter(double jitter) {
+            this.jitter = Math.max(0, Math.min(1, jitter));
+            return this;
+        }
+
+        /**
+         * The errors to retry, all of them by default
+         */
+        public Builder retryOn(Predicate<Throwable> retryOn) {
+            this.retryOn = retryOn != null ? retryOn : error -> true;
+            return this;
+        }
+
+        public Builder scheduler(Scheduler scheduler) {
+            this.scheduler = scheduler != null ? scheduler : Schedulers.computation();
+            return this;
+        }
+
+        public Builder random(Random random) {
+            this.random = random != null ? random : new Random();
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
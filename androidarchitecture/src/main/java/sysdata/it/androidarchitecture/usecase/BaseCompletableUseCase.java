@@ -0,0 +1,44 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import io.reactivex.Completable;
+import io.reactivex.CompletableObserver;
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+
+/**
+ * A use case emitting no value, like a logout or a save.
+ * <p>
+ * The executions disposing the previous one subscribe the {@link Completable} directly and signal
+ * {@link BaseUsecaseObserver#onComplete()}, the other {@link ConcurrencyPolicy}, the shared, cached,
+ * retried, guarded and deadline bound executions go through its observable.
+ * </p>
+ */
+public abstract class BaseCompletableUseCase extends BaseUseCase<Void> {
+
+    /**
+     * Subscribes the executions disposing the previous one, see {@link BaseUseCase#directSource(Observer)}
+     */
+    private final DirectSource<Void> directSource = (b, execution) -> buildUseCaseCompletable(b).subscribe(execution);
+
+    public BaseCompletableUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+        super(threadExecutor, postExecutionThread);
+    }
+
+    /**
+     * Builds the {@link Completable} which will be used when executing the current use case.
+     */
+    protected abstract Completable buildUseCaseCompletable(Bundle b);
+
+    @Override
+    protected final Observable<Void> buildUseCaseObservable(Bundle b) {
+        return buildUseCaseCompletable(b).toObservable();
+    }
+
+    @Override
+    DirectSource<Void> directSource(Observer<Void> useCaseSubscriber) {
+        return useCaseSubscriber instanceof CompletableObserver ? directSource : null;
+    }
+}
@@ -0,0 +1,15 @@
+package sysdata.it.androidarchitecture.usecase;
+
+/**
+ * Observer of a {@link BaseCompletableUseCase}, only the end of the execution is delivered.
+ */
+public abstract class BaseCompletableUsecaseObserver extends BaseUsecaseObserver<Void> {
+
+    @Override
+    public abstract void onComplete();
+
+    @Override
+    public final void onNext(Void value) {
+
+    }
+}
@@ -0,0 +1,239 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import org.reactivestreams.Subscription;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.FlowableSubscriber;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import sysdata.it.androidarchitecture.repository.CancellationScope;
+
+/**
+ * A use case streaming a large result set, like a sync of thousands of records or a file import.
+ * <p>
+ * Values are consumed on request of the {@link BaseFlowableUsecaseObserver} and delivered in
+ * {@link List} batches of {@link #getBatchSize()} values. By default the requests of the observer reach
+ * the {@link Flowable}, which produces only the values requested, so the memory used does not depend on
+ * the size of the stream. Sources that cannot be slowed down, like sensors or sockets, choose a
+ * {@link #getOverflowStrategy()}: at most {@link #getBufferSize()} values then wait for the observer.
+ * </p>
+ */
+public abstract class BaseFlowableUseCase<T> {
+
+    /**
+     * Batches prefetched on the post execution thread, one processed while the next one is ready
+     */
+    static final int PREFETCH_BATCHES = 2;
+
+    private final Scheduler mThreadExecutor;
+    private final Scheduler mPostExecutionThread;
+
+    protected volatile Disposable mSubscription = null;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<BaseFlowableUseCase, Disposable> SUBSCRIPTION =
+            AtomicReferenceFieldUpdater.newUpdater(BaseFlowableUseCase.class, Disposable.class, "mSubscription");
+
+    /**
+     * @param threadExecutor      the {@link Scheduler} on which to execute the work
+     * @param postExecutionThread the {@link Scheduler} on which to emit the batches
+     */
+    public BaseFlowableUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+        this.mThreadExecutor = threadExecutor;
+        this.mPostExecutionThread = postExecutionThread;
+    }
+
+    /**
+     * Builds the {@link Flowable} streaming the values of an execution, values are requested as the
+     * observer consumes them. Without an overflow strategy it must honour the requests, like
+     * {@link Flowable#fromIterable(Iterable)} or {@link Flowable#generate}, or the execution fails with a
+     * {@link io.reactivex.exceptions.MissingBackpressureException}.
+     */
+    protected abstract Flowable<T> buildUseCaseFlowable(Bundle b);
+
+    /**
+     * Values waiting for the observer before the overflow strategy applies, used only with a strategy
+     */
+    protected int getBufferSize() {
+        return Flowable.bufferSize();
+    }
+
+    /**
+     * The strategy for a source producing more than requested, null by default to let the requests of
+     * the observer reach the source. With a strategy the source is drained into a buffer of
+     * {@link #getBufferSize()} values: when it is full {@link BackpressureOverflowStrategy#ERROR} ends the
+     * execution with a {@link io.reactivex.exceptions.MissingBackpressureException}, the other strategies
+     * drop the oldest or the latest value and call {@link #onOverflow()}
+     */
+    protected BackpressureOverflowStrategy getOverflowStrategy() {
+        return null;
+    }
+
+    /**
+     * Values in each batch, the last batch of a stream can be smaller
+     */
+    protected int getBatchSize() {
+        return 1;
+    }
+
+    /**
+     * Called on the thread executor every time the buffer is full and a value is dropped
+     */
+    protected void onOverflow() {
+
+    }
+
+    /**
+     * Executes the current use case, disposing the previous execution. The execution is registered in the
+     * {@link CancellationScope#current()} scope, if any.
+     *
+     * @param useCaseSubscriber the observer requesting and receiving the batches
+     * @param b                 A bundle containing parameters needed to generate the Flowable
+     * @return the disposable of the execution, null without an observer
+     */
+    public Disposable execute(BaseFlowableUsecaseObserver<T> useCaseSubscriber, Bundle b) {
+        if(useCaseSubscriber == null) {
+            unsubscribe();
+            return null;
+        }
+
+        CancellationScope scope = CancellationScope.current();
+        Execution execution = new Execution(useCaseSubscriber, scope);
+        // atomic, so that executions started from many threads dispose each other
+        Disposable previous = SUBSCRIPTION.getAndSet(this, execution);
+        if(previous != null) {
+            previous.dispose();
+        }
+        if(scope != null && !scope.add(execution)) {
+            // the scope is cancelled, the execution has been disposed
+            return execution;
+        }
+
+        // the work built inside registers in the scope of the execution
+        Flowable<T> flowable = scope == null
+                ? Flowable.defer(() -> buildUseCaseFlowable(b))
+                : Flowable.defer(() -> CancellationScope.callWith(scope, () -> buildUseCaseFlowable(b)));
+        BackpressureOverflowStrategy overflowStrategy = getOverflowStrategy();
+        if(overflowStrategy != null) {
+            flowable = flowable.onBackpressureBuffer(Math.max(1, getBufferSize()), this::onOverflow, overflowStrategy);
+        }
+        flowable.buffer(Math.max(1, getBatchSize()))
+                .subscribeOn(mThreadExecutor)
+                .observeOn(mPostExecutionThread, false, PREFETCH_BATCHES)
+                .subscribe(execution);
+        return execution;
+    }
+
+    public Disposable execute(BaseFlowableUsecaseObserver<T> useCaseSubscriber) {
+        return execute(useCaseSubscriber, null);
+    }
+
+    public Scheduler getThreadExecutor() {
+        return mThreadExecutor;
+    }
+
+    public Scheduler getPostExecutionThread() {
+        return mPostExecutionThread;
+    }
+
+    /**
+     * Cancels the running execution, the values already buffered are discarded
+     */
+    public void unsubscribe() {
+        Disposable subscription = mSubscription;
+        if(subscription != null && !subscription.isDisposed()) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * The subscription of an execution, the observer requests through it and disposing it cancels the
+     * upstream. It lets the same observer be used by many executions.
+     */
+    private final class Execution extends AtomicReference<Subscription>
+            implements FlowableSubscriber<List<T>>, Subscription, Disposable {
+
+        final BaseFlowableUsecaseObserver<T> subscriber;
+        final CancellationScope scope;
+        volatile boolean disposed;
+
+        Execution(BaseFlowableUsecaseObserver<T> subscriber, CancellationScope scope) {
+            this.subscriber = subscriber;
+            this.scope = scope;
+        }
+
+        private void unregister() {
+            if(scope != null) scope.remove(this);
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            set(s);
+            if(disposed) {
+                s.cancel();
+            } else {
+                subscriber.onSubscribe(this);
+            }
+        }
+
+        @Override
+        public void onNext(List<T> batch) {
+            if(!isDisposed()) {
+                subscriber.onNext(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if(!isDisposed()) {
+                disposed = true;
+                unregister();
+                subscriber.onError(t);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if(!isDisposed()) {
+                disposed = true;
+                unregister();
+                subscriber.onComplete();
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            Subscription s = get();
+            if(s != null && !disposed) {
+                s.request(n);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            dispose();
+        }
+
+        @Override
+        public void dispose() {
+            if(!disposed) {
+                disposed = true;
+                unregister();
+                Subscription s = get();
+                if(s != null) s.cancel();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
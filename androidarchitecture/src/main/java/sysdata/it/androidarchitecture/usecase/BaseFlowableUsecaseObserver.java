@@ -0,0 +1,83 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.util.Log;
+
+import org.reactivestreams.Subscription;
+
+import java.util.List;
+
+import io.reactivex.FlowableSubscriber;
+
+/**
+ * Observer of a {@link BaseFlowableUseCase}, it receives the values in batches and requests the next
+ * batch only after {@link #onBatch(List)} returns, so a slow consumer slows down the producer instead
+ * of being flooded.
+ */
+public abstract class BaseFlowableUsecaseObserver<RepositoryModel> implements FlowableSubscriber<List<RepositoryModel>> {
+
+    private Class<? extends BaseFlowableUseCase> observedUsecaseClass;
+    private Subscription subscription;
+
+    public Class<? extends BaseFlowableUseCase> getObservedUsecaseClass() {
+        return observedUsecaseClass;
+    }
+
+    public void setObservedUsecaseClass(Class<? extends BaseFlowableUseCase> observedUsecaseClass) {
+        this.observedUsecaseClass = observedUsecaseClass;
+    }
+
+    /**
+     * Receives a batch of values on the post execution thread
+     */
+    protected abstract void onBatch(List<RepositoryModel> batch);
+
+    /**
+     * Batches requested when the execution starts and after each batch is consumed, return 0 to request
+     * them manually with {@link #request(long)}
+     */
+    protected long getRequestSize() {
+        return 1;
+    }
+
+    /**
+     * Requests more batches to the running execution
+     */
+    protected final void request(long n) {
+        Subscription s = subscription;
+        if(s != null && n > 0) {
+            s.request(n);
+        }
+    }
+
+    /**
+     * Stops the running execution
+     */
+    protected final void cancel() {
+        Subscription s = subscription;
+        if(s != null) {
+            s.cancel();
+        }
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+        subscription = s;
+        request(getRequestSize());
+    }
+
+    @Override
+    public void onNext(List<RepositoryModel> batch) {
+        onBatch(batch);
+        request(getRequestSize());
+    }
+
+    @Override
+    public void onError(Throwable e) {
+        Log.e("BaseFlowableObs", "onError: ", e);
+    }
+
+    @Override
+    public void onComplete() {
+
+    }
+}
@@ -0,0 +1,45 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import io.reactivex.Maybe;
+import io.reactivex.MaybeObserver;
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+
+/**
+ * A use case emitting at most one value, like a lookup in a cache.
+ * <p>
+ * The executions disposing the previous one subscribe the {@link Maybe} directly: a value is delivered
+ * to {@link BaseUsecaseObserver#onSuccess(Object)}, no value to {@link BaseUsecaseObserver#onComplete()}.
+ * The other {@link ConcurrencyPolicy}, the shared, cached, retried,
+ * guarded and deadline bound executions go through its observable.
+ * </p>
+ */
+public abstract class BaseMaybeUseCase<T> extends BaseUseCase<T> {
+
+    /**
+     * Subscribes the executions disposing the previous one, see {@link BaseUseCase#directSource(Observer)}
+     */
+    private final DirectSource<T> directSource = (b, execution) -> buildUseCaseMaybe(b).subscribe(execution);
+
+    public BaseMaybeUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+        super(threadExecutor, postExecutionThread);
+    }
+
+    /**
+     * Builds the {@link Maybe} which will be used when executing the current use case.
+     */
+    protected abstract Maybe<T> buildUseCaseMaybe(Bundle b);
+
+    @Override
+    protected final Observable<T> buildUseCaseObservable(Bundle b) {
+        return buildUseCaseMaybe(b).toObservable();
+    }
+
+    @Override
+    DirectSource<T> directSource(Observer<T> useCaseSubscriber) {
+        return useCaseSubscriber instanceof MaybeObserver ? directSource : null;
+    }
+}
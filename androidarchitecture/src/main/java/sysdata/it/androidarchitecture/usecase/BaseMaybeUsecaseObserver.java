@@ -0,0 +1,46 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import io.reactivex.disposables.Disposable;
+
+/**
+ * Observer of a {@link BaseMaybeUseCase}, it receives the value in {@link #onSuccess(Object)} or
+ * {@link #onEmpty()} when there is none, whatever the path taken by the execution.
+ * <p>
+ * Executions through the observable are told apart only when they do not overlap, so the actions using
+ * it should not use {@link ConcurrencyPolicy#MERGE}.
+ * </p>
+ */
+public abstract class BaseMaybeUsecaseObserver<RepositoryModel> extends BaseUsecaseObserver<RepositoryModel> {
+
+    private boolean valueReceived;
+
+    @Override
+    public abstract void onSuccess(RepositoryModel repositoryModel);
+
+    /**
+     * Called when the execution ends without a value
+     */
+    protected void onEmpty() {
+
+    }
+
+    @Override
+    public void onSubscribe(Disposable d) {
+        valueReceived = false;
+    }
+
+    @Override
+    public final void onNext(RepositoryModel repositoryModel) {
+        valueReceived = true;
+        onSuccess(repositoryModel);
+    }
+
+    @Override
+    public final void onComplete() {
+        if(valueReceived) {
+            valueReceived = false;
+        } else {
+            onEmpty();
+        }
+    }
+}
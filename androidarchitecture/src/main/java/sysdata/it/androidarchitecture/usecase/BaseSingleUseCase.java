@@ -0,0 +1,44 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import io.reactivex.SingleObserver;
+
+/**
+ * A use case emitting exactly one value, like a login or a detail request.
+ * <p>
+ * The executions disposing the previous one subscribe the {@link Single} directly and deliver its value
+ * to {@link BaseUsecaseObserver#onSuccess(Object)}, the other {@link ConcurrencyPolicy}, the shared,
+ * cached, retried, guarded and deadline bound executions go through its observable.
+ * </p>
+ */
+public abstract class BaseSingleUseCase<T> extends BaseUseCase<T> {
+
+    /**
+     * Subscribes the executions disposing the previous one, see {@link BaseUseCase#directSource(Observer)}
+     */
+    private final DirectSource<T> directSource = (b, execution) -> buildUseCaseSingle(b).subscribe(execution);
+
+    public BaseSingleUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+        super(threadExecutor, postExecutionThread);
+    }
+
+    /**
+     * Builds the {@link Single} which will be used when executing the current use case.
+     */
+    protected abstract Single<T> buildUseCaseSingle(Bundle b);
+
+    @Override
+    protected final Observable<T> buildUseCaseObservable(Bundle b) {
+        return buildUseCaseSingle(b).toObservable();
+    }
+
+    @Override
+    DirectSource<T> directSource(Observer<T> useCaseSubscriber) {
+        return useCaseSubscriber instanceof SingleObserver ? directSource : null;
+    }
+}
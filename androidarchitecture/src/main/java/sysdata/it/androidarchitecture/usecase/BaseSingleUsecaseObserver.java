@@ -0,0 +1,16 @@
+package sysdata.it.androidarchitecture.usecase;
+
+/**
+ * Observer of a {@link BaseSingleUseCase}, it receives the only value in {@link #onSuccess(Object)}
+ * whatever the path taken by the execution.
+ */
+public abstract class BaseSingleUsecaseObserver<RepositoryModel> extends BaseUsecaseObserver<RepositoryModel> {
+
+    @Override
+    public abstract void onSuccess(RepositoryModel repositoryModel);
+
+    @Override
+    public final void onNext(RepositoryModel repositoryModel) {
+        onSuccess(repositoryModel);
+    }
+}
@@ -18,10 +18,33 @@ package sysdata.it.androidarchitecture.usecase;
 
 import android.os.Bundle;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import io.reactivex.CompletableObserver;
+import io.reactivex.MaybeObserver;
 import io.reactivex.Observable;
 import io.reactivex.Observer;
 import io.reactivex.Scheduler;
+import io.reactivex.SingleObserver;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.exceptions.Exceptions;
+import io.reactivex.schedulers.Schedulers;
+import sysdata.it.androidarchitecture.repository.CancellationScope;
+import sysdata.it.androidarchitecture.repository.CircuitBreaker;
+import sysdata.it.androidarchitecture.repository.CircuitOpenException;
+import sysdata.it.androidarchitecture.repository.Deadline;
+import sysdata.it.androidarchitecture.repository.Resource;
+import sysdata.it.androidarchitecture.repository.DeadlineExceededException;
+import sysdata.it.androidarchitecture.repository.RetryPolicy;
 
 /**
  * A UseCase represents and performs a single, atomic work unit.
@@ -45,8 +68,30 @@ public abstract class BaseUseCase<T> {
 
     /**
      * A Subscription is a convenience object used to be able to unsubscribe from an observable.
+     * Replace it through {@link #replaceSubscription(Disposable)} when executions can start from many threads.
+     */
+    protected volatile Disposable mSubscription = null;
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<BaseUseCase, Disposable> SUBSCRIPTION =
+            AtomicReferenceFieldUpdater.newUpdater(BaseUseCase.class, Disposable.class, "mSubscription");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<BaseUseCase.Run, Disposable> RUN_UPSTREAM =
+            AtomicReferenceFieldUpdater.newUpdater(BaseUseCase.Run.class, Disposable.class, "upstream");
+    /**
+     * Taken by the upstream of a terminated {@link Run}, so that it is disposed only once
      */
-    protected Disposable mSubscription = null;
+    private static final Disposable TERMINATED = Disposables.disposed();
+
+    /**
+     * Executions started with a {@link ConcurrencyPolicy} other than {@link ConcurrencyPolicy#CANCEL_PREVIOUS},
+     * guarded by {@link #mRunsLock}
+     */
+    private final Set<Run> mRuns = new LinkedHashSet<>();
+    private final ArrayDeque<Run> mPendingRuns = new ArrayDeque<>();
+    private final Object mRunsLock = new Object();
+
+    private volatile ExecutionMode mExecutionMode = ExecutionMode.WORKER;
 
     /**
      * Will setup the 'execution' Scheduler and the 'emission' Scheduler to use.
@@ -66,6 +111,174 @@ public abstract class BaseUseCase<T> {
      */
     protected abstract Observable<T> buildUseCaseObservable(Bundle b);
 
+    /**
+     * Return true to share the upstream between the executions of this use case class running at the
+     * same time with equal parameters, compared through {@link BundleKey}. Use it only for use cases
+     * whose result depends on the bundle alone.
+     */
+    protected boolean shareInFlight() {
+        return false;
+    }
+
+    /**
+     * Return a positive time to keep the results of this use case class in {@link UseCaseResultCache}: an
+     * execution with parameters equal to a completed one, compared through {@link BundleKey}, emits the
+     * stored values on the post execution thread without building the observable.
+     */
+    protected long resultCacheTtlMillis() {
+        return 0;
+    }
+
+    /**
+     * Return false to not store an execution emitting the value in {@link UseCaseResultCache}. By default
+     * only {@link Resource}s in {@link Resource.Status#SUCCESS} are stored, a failed or still loading one
+     * would be replayed to the next executions.
+     */
+    protected boolean isCacheableResult(T value) {
+        return !(value instanceof Resource) || ((Resource<?>) value).status == Resource.Status.SUCCESS;
+    }
+
+    /**
+     * The size of a value counted by the bounds of {@link UseCaseResultCache}, by default
+     * {@link UseCaseResultCache#estimateBytes(Object)}
+     */
+    protected long estimateResultBytes(T value) {
+        return UseCaseResultCache.estimateBytes(value);
+    }
+
+    /**
+     * @return the values stored for the parameters, null on a miss or when results are not cached
+     */
+    final List<T> getCachedResult(Bundle b) {
+        return resultCacheTtlMillis() > 0 ? UseCaseResultCache.<T>get(getClass(), BundleKey.of(b)) : null;
+    }
+
+    /**
+     * The retries of the failed executions, none by default. Each retry builds the observable again.
+     */
+    protected RetryPolicy getRetryPolicy() {
+        return null;
+    }
+
+    /**
+     * The circuit guarding the executions, none by default. Return a shared one, like
+     * {@link CircuitBreaker#forClass(Class)}, so that all the instances of the class see the same failures.
+     */
+    protected CircuitBreaker getCircuitBreaker() {
+        return null;
+    }
+
+    /**
+     * Called instead of building the observable while the circuit is open, by default the execution fails
+     * fast with the given error. Return cached data to fall back to it.
+     */
+    protected Observable<T> onCircuitOpen(Bundle b, CircuitOpenException e) {
+        return Observable.error(e);
+    }
+
+    /**
+     * What the deadline of an execution bounds, by default {@link DeadlineMode#FIRST_VALUE} so that the
+     * sources emitting for a long time are not cancelled once they have delivered
+     */
+    protected DeadlineMode getDeadlineMode() {
+        return DeadlineMode.FIRST_VALUE;
+    }
+
+    /**
+     * Called when the deadline of an execution expires, its work has already been cancelled. By default the
+     * execution fails with the given error, that an observer built with {@link BaseUsecaseObserver#buildOn(Class)}
+     * shows as a failed {@link Resource}. Use cases can also return a failed Resource themselves.
+     */
+    protected Observable<T> onDeadlineExceeded(Bundle b, DeadlineExceededException e) {
+        return Observable.error(e);
+    }
+
+    /**
+     * Builds the observable with the deadline as {@link Deadline#current()} and the scope of the execution
+     * as {@link CancellationScope#current()}, so that the use cases and repositories built inside inherit
+     * them
+     */
+    private Observable<T> buildInContext(Bundle b, Deadline deadline, CancellationScope scope) {
+        if(deadline == null && scope == null) {
+            return buildUseCaseObservable(b);
+        }
+        try {
+            return CancellationScope.callWith(scope, () -> Deadline.callWith(deadline, () -> buildUseCaseObservable(b)));
+        } catch (Exception e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    /**
+     * @param cacheKey the parameters of the results to store, null to not store them. Each attempt records
+     *                 its own values, the fallbacks of an open circuit are never stored
+     */
+    private Observable<T> buildResilientObservable(Bundle b, Deadline deadline, CancellationScope scope, BundleKey cacheKey) {
+        RetryPolicy retryPolicy = getRetryPolicy();
+        CircuitBreaker circuitBreaker = getCircuitBreaker();
+        if(retryPolicy == null && circuitBreaker == null && cacheKey == null) {
+            return buildInContext(b, deadline, scope);
+        }
+
+        Observable<T> observable = Observable.defer(() -> buildInContext(b, deadline, scope));
+        if(cacheKey != null) {
+            observable = UseCaseResultCache.record(getClass(), cacheKey, resultCacheTtlMillis(), this, observable);
+        }
+        if(circuitBreaker != null) {
+            observable = observable.compose(circuitBreaker.protect());
+        }
+        if(retryPolicy != null) {
+            observable = observable.compose(retryPolicy.apply());
+        }
+        if(circuitBreaker != null) {
+            observable = observable.onErrorResumeNext((Throwable e) -> e instanceof CircuitOpenException
+                    ? onCircuitOpen(b, (CircuitOpenException) e)
+                    : Observable.<T>error(e));
+        }
+        return observable;
+    }
+
+    /**
+     * The observable of an execution with caching, sharing, retries, circuit and deadline applied, not
+     * yet scheduled, for the use cases composing this one
+     */
+    Observable<T> buildExecution(Bundle b, Deadline deadline, CancellationScope scope) {
+        return createObservable(b, deadline, scope);
+    }
+
+    private Observable<T> createObservable(Bundle b, Deadline deadline, CancellationScope scope) {
+        Observable<T> observable = createSharedObservable(b, deadline, scope);
+        if(deadline == null) {
+            return observable;
+        }
+        return observable.compose(getDeadlineMode() == DeadlineMode.WHOLE_EXECUTION ? deadline.<T>enforce() : deadline.<T>enforceFirst())
+                .onErrorResumeNext((Throwable e) -> e instanceof DeadlineExceededException
+                        ? onDeadlineExceeded(b, (DeadlineExceededException) e)
+                        : Observable.<T>error(e));
+    }
+
+    private Observable<T> createSharedObservable(Bundle b, Deadline deadline, CancellationScope scope) {
+        boolean cached = resultCacheTtlMillis() > 0;
+        if(!shareInFlight() && !cached) {
+            return buildResilientObservable(b, deadline, scope, null);
+        }
+
+        BundleKey key = BundleKey.of(b);
+        // the flight is built with the deadline of its first execution, each execution enforces its own,
+        // and it outlives the scope of the first execution, so its nested work belongs to no scope
+        CancellationScope sourceScope = shareInFlight() ? null : scope;
+        BundleKey cacheKey = cached ? key : null;
+        Callable<Observable<T>> source = () -> buildResilientObservable(b, deadline, sourceScope, cacheKey);
+        if(shareInFlight()) {
+            return SingleFlight.share(getClass(), key, source);
+        }
+        try {
+            return source.call();
+        } catch (Exception e) {
+            return Observable.error(e);
+        }
+    }
+
     /**
      * Executes the current use case.
      *
@@ -86,18 +299,204 @@ public abstract class BaseUseCase<T> {
      */
     @SuppressWarnings("unchecked")
     public void execute(final Observer<T> useCaseSubscriber, Bundle b) {
+        execute(useCaseSubscriber, b, Deadline.current());
+    }
 
-        // don't waste subscriptions
-        if(mSubscription != null && !mSubscription.isDisposed()){
-            mSubscription.dispose();
+    /**
+     * Executes the current use case within a deadline, bounding what {@link #getDeadlineMode()} defines:
+     * when it expires the work is cancelled and
+     * {@link #onDeadlineExceeded(Bundle, DeadlineExceededException)} ends the execution. The execution runs
+     * in a child of the {@link CancellationScope#current()} scope, if any. A {@link #isShareable() shareable}
+     * instance disposes only the previous execution of the same observer.
+     *
+     * @param useCaseSubscriber The guy who will be listen to the observable build with {@link
+     *                          #buildUseCaseObservable(Bundle)}.
+     * @param b                 A bundle containing parameters needed to generate the Observable
+     * @param deadline          the deadline of the execution, null for none
+     */
+    public void execute(final Observer<T> useCaseSubscriber, Bundle b, Deadline deadline) {
+        if(isShareable()) {
+            // the executions of the other view models sharing the instance must keep running
+            if(useCaseSubscriber != null) {
+                execute(useCaseSubscriber, b, ConcurrencyPolicy.CANCEL_PREVIOUS, 1, deadline);
+            }
+            return;
         }
 
         if (useCaseSubscriber != null) {
-            // in this case we need to define what thread should execute the subscription logic
-            this.mSubscription = mThreadExecutor.createWorker()
-                    .schedule(() -> buildUseCaseObservable(b)
-                            .observeOn(mPostExecutionThread)
-                            .subscribe(useCaseSubscriber));
+            DirectSource<T> source = deadline == null && !needsObservable() ? directSource(useCaseSubscriber) : null;
+            if(source != null) {
+                DirectExecution<T> execution = new DirectExecution<>(useCaseSubscriber, mPostExecutionThread, CancellationScope.current());
+                // the previous execution is disposed before this one starts
+                replaceSubscription(execution);
+                execution.start(b, source, mThreadExecutor);
+                return;
+            }
+
+            // the run keeps the worker and the real subscription, so that disposing it cancels the work
+            Run run = new Run(useCaseSubscriber, b, 1, deadline, CancellationScope.current());
+            replaceSubscription(run);
+            run.start();
+        } else {
+            // don't waste subscriptions
+            replaceSubscription(null);
+        }
+    }
+
+    /**
+     * Publishes the subscription of the last execution and disposes the previous one. The swap is atomic,
+     * executions started from many threads at once never leave one running untracked.
+     */
+    protected final void replaceSubscription(Disposable subscription) {
+        Disposable previous = SUBSCRIPTION.getAndSet(this, subscription);
+        if(previous != null && previous != subscription) {
+            previous.dispose();
+        }
+    }
+
+    /**
+     * Executes the current use case following a {@link ConcurrencyPolicy}.
+     *
+     * @param useCaseSubscriber The guy who will be listen to the observable build with {@link
+     *                          #buildUseCaseObservable(Bundle)}.
+     * @param b                 A bundle containing parameters needed to generate the Observable
+     * @param policy            what to do with the executions still running
+     * @param maxConcurrency    executions running in parallel with {@link ConcurrencyPolicy#MERGE}
+     * @return the disposable of the execution, null if it was dropped
+     */
+    public Disposable execute(final Observer<T> useCaseSubscriber, Bundle b, ConcurrencyPolicy policy, int maxConcurrency) {
+        return execute(useCaseSubscriber, b, policy, maxConcurrency, Deadline.current());
+    }
+
+    /**
+     * Executes the current use case following a {@link ConcurrencyPolicy} within a deadline, an execution
+     * waiting for its turn consumes its budget too.
+     *
+     * @param deadline          the deadline of the execution, null for none
+     * @see #execute(Observer, Bundle, ConcurrencyPolicy, int)
+     */
+    public Disposable execute(final Observer<T> useCaseSubscriber, Bundle b, ConcurrencyPolicy policy, int maxConcurrency, Deadline deadline) {
+        boolean cancelPrevious = policy == null || policy == ConcurrencyPolicy.CANCEL_PREVIOUS;
+        if(cancelPrevious && !isShareable()) {
+            execute(useCaseSubscriber, b, deadline);
+            return tracksSubscription() ? mSubscription : null;
+        }
+        if(useCaseSubscriber == null) {
+            return null;
+        }
+        if(cancelPrevious) {
+            // a shared instance cancels only the executions of the same observer
+            unsubscribe(useCaseSubscriber);
+        }
+
+        int limit = policy == ConcurrencyPolicy.MERGE ? Math.max(1, maxConcurrency) : 1;
+        Run run = new Run(useCaseSubscriber, b, limit, deadline, CancellationScope.current());
+        synchronized (mRunsLock) {
+            if(countRuns(useCaseSubscriber) < limit) {
+                mRuns.add(run);
+            } else if(policy == ConcurrencyPolicy.DROP_WHILE_RUNNING) {
+                return null;
+            } else {
+                mPendingRuns.add(run);
+                return run;
+            }
+        }
+        run.start();
+        return run;
+    }
+
+    /**
+     * @return true when {@link #mSubscription} keeps the real subscription of the last execution
+     */
+    boolean tracksSubscription() {
+        Disposable subscription = mSubscription;
+        return subscription instanceof BaseUseCase.Run || subscription instanceof DirectExecution;
+    }
+
+    /**
+     * The source subscribed directly, without the observable of the use case, by the executions disposing
+     * the previous one. Overridden by the use cases built on a Single, Maybe or Completable.
+     *
+     * @return null to go through the observable, the default
+     */
+    DirectSource<T> directSource(Observer<T> useCaseSubscriber) {
+        return null;
+    }
+
+    /**
+     * @return true when the executions need the observable of the use case, to share it, cache its results,
+     *         retry it or guard it with a circuit
+     */
+    final boolean needsObservable() {
+        return shareInFlight() || resultCacheTtlMillis() > 0 || getRetryPolicy() != null || getCircuitBreaker() != null;
+    }
+
+    public ExecutionMode getExecutionMode() {
+        return mExecutionMode;
+    }
+
+    /**
+     * Changes how the next executions subscribe their observable, see {@link ExecutionMode}
+     */
+    public void setExecutionMode(ExecutionMode executionMode) {
+        mExecutionMode = executionMode != null ? executionMode : ExecutionMode.WORKER;
+    }
+
+    /**
+     * @return true if an execution started with a {@link ConcurrencyPolicy} is running or waiting
+     */
+    public boolean isRunning() {
+        synchronized (mRunsLock) {
+            return !mRuns.isEmpty() || !mPendingRuns.isEmpty();
+        }
+    }
+
+    /**
+     * Return true when the use case keeps no state between executions, so that a single instance can
+     * serve all the view models. Policies and cancellations of a shareable instance apply to the
+     * executions of the same observer only.
+     */
+    public boolean isShareable() {
+        return false;
+    }
+
+    /**
+     * Executions counted by the policies, all of them or the ones of the observer for a shareable instance
+     */
+    private int countRuns(Observer<T> subscriber) {
+        if(!isShareable()) {
+            return mRuns.size();
+        }
+
+        int count = 0;
+        for (Run run : mRuns) {
+            if(run.subscriber == subscriber) count++;
+        }
+        return count;
+    }
+
+    private void onRunTerminated(Run run) {
+        List<Run> toStart = new ArrayList<>();
+        synchronized (mRunsLock) {
+            if(!mRuns.remove(run)) {
+                // a waiting execution cancelled by its scope must not take a slot later
+                mPendingRuns.remove(run);
+                return;
+            }
+            Iterator<Run> pending = mPendingRuns.iterator();
+            while (pending.hasNext()) {
+                Run next = pending.next();
+                if(countRuns(next.subscriber) < next.limit) {
+                    pending.remove();
+                    mRuns.add(next);
+                    toStart.add(next);
+                } else if(!isShareable()) {
+                    break;
+                }
+            }
+        }
+        for (Run next : toStart) {
+            next.start();
         }
     }
 
@@ -125,10 +524,351 @@ public abstract class BaseUseCase<T> {
      * Subclasses should override this method to remove all the Subscribers added to (if any)
      * Repository they hold a reference to, and then release such Repositories.
      * </p>
+     *
+     * @throws IllegalStateException on a {@link #isShareable() shareable} instance, where it would cancel the
+     *                               executions of the other view models: use {@link #unsubscribe(Observer)}
      */
     public void unsubscribe() {
-        if (mSubscription != null && !mSubscription.isDisposed()) {
-            mSubscription.dispose();
+        if(isShareable()) {
+            throw new IllegalStateException(getClass().getName() + " is shareable, unsubscribe its observers one by one");
+        }
+
+        Disposable subscription = mSubscription;
+        if (subscription != null && !subscription.isDisposed()) {
+            subscription.dispose();
+        }
+
+        List<Run> running;
+        synchronized (mRunsLock) {
+            mPendingRuns.clear();
+            running = new ArrayList<>(mRuns);
+            mRuns.clear();
+        }
+        for (Run run : running) {
+            run.dispose();
+        }
+    }
+
+    /**
+     * Disposes the executions of a single observer started with a {@link ConcurrencyPolicy}, the ones
+     * of the other observers keep running. Used with shareable instances.
+     */
+    public void unsubscribe(Observer<T> useCaseSubscriber) {
+        List<Run> running = new ArrayList<>();
+        synchronized (mRunsLock) {
+            Iterator<Run> pending = mPendingRuns.iterator();
+            while (pending.hasNext()) {
+                if(pending.next().subscriber == useCaseSubscriber) pending.remove();
+            }
+            Iterator<Run> runs = mRuns.iterator();
+            while (runs.hasNext()) {
+                Run run = runs.next();
+                if(run.subscriber == useCaseSubscriber) {
+                    runs.remove();
+                    running.add(run);
+                }
+            }
+        }
+        for (Run run : running) {
+            run.dispose();
+        }
+    }
+
+    /**
+     * Registers a subscription of the executions not made by a {@link Run}, false if the scope is cancelled
+     * and the subscription has been disposed
+     */
+    static boolean register(CancellationScope scope, Disposable subscription) {
+        return scope == null || scope.add(subscription);
+    }
+
+    static void unregister(CancellationScope scope, Disposable subscription) {
+        if(scope != null) {
+            scope.remove(subscription);
+        }
+    }
+
+    /**
+     * Builds a Single, Maybe or Completable and subscribes the execution to it
+     */
+    interface DirectSource<T> {
+        void subscribe(Bundle b, DirectExecution<T> execution) throws Exception;
+    }
+
+    /**
+     * An execution subscribing a Single, Maybe or Completable directly: a task of the thread executor builds
+     * and subscribes the source, its only signal hops to the post execution thread. Disposing it disposes
+     * the task, the upstream and the signal not delivered yet. It is registered in the scope current when
+     * it was created, where the work built inside registers too.
+     */
+    static final class DirectExecution<T> extends AtomicBoolean
+            implements SingleObserver<T>, MaybeObserver<T>, CompletableObserver, Disposable {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<DirectExecution, Disposable> UPSTREAM =
+                AtomicReferenceFieldUpdater.newUpdater(DirectExecution.class, Disposable.class, "upstream");
+
+        private final Observer<T> target;
+        private final Scheduler postExecutionThread;
+        private final CancellationScope scope;
+        volatile Disposable upstream;
+        /**
+         * The task subscribing the source, then the one delivering its signal
+         */
+        private volatile Disposable scheduled;
+
+        DirectExecution(Observer<T> target, Scheduler postExecutionThread, CancellationScope scope) {
+            this.target = target;
+            this.postExecutionThread = postExecutionThread;
+            this.scope = scope;
+        }
+
+        void start(Bundle b, DirectSource<T> source, Scheduler threadExecutor) {
+            if(!register(scope, this)) {
+                return;
+            }
+            target.onSubscribe(this);
+
+            if(threadExecutor == Schedulers.trampoline()) {
+                subscribeSource(b, source);
+                return;
+            }
+            Disposable task = threadExecutor.scheduleDirect(() -> subscribeSource(b, source));
+            scheduled = task;
+            if(isDisposed()) {
+                task.dispose();
+            }
+        }
+
+        private void subscribeSource(Bundle b, DirectSource<T> source) {
+            if(isDisposed()) return;
+
+            try {
+                if(scope == null) {
+                    source.subscribe(b, this);
+                } else {
+                    CancellationScope.callWith(scope, () -> {
+                        source.subscribe(b, this);
+                        return null;
+                    });
+                }
+            } catch (Throwable e) {
+                Exceptions.throwIfFatal(e);
+                onError(e);
+            }
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            if(!UPSTREAM.compareAndSet(this, null, d)) {
+                d.dispose();
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onSuccess(T value) {
+            // the same method for an observer of both, as BaseUsecaseObserver
+            signal(() -> {
+                if(target instanceof SingleObserver) {
+                    ((SingleObserver<T>) target).onSuccess(value);
+                } else {
+                    ((MaybeObserver<T>) target).onSuccess(value);
+                }
+            });
+        }
+
+        @Override
+        public void onComplete() {
+            signal(target::onComplete);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            signal(() -> target.onError(e));
+        }
+
+        private void signal(Runnable signal) {
+            if(postExecutionThread == Schedulers.trampoline()) {
+                terminate(signal);
+                return;
+            }
+            Disposable delivery = postExecutionThread.scheduleDirect(() -> terminate(signal));
+            scheduled = delivery;
+            if(isDisposed()) {
+                delivery.dispose();
+            }
+        }
+
+        private void terminate(Runnable signal) {
+            if(compareAndSet(false, true)) {
+                unregister(scope, this);
+                signal.run();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if(compareAndSet(false, true)) {
+                Disposable d = UPSTREAM.getAndSet(this, TERMINATED);
+                if(d != null && d != TERMINATED) d.dispose();
+                Disposable s = scheduled;
+                if(s != null) s.dispose();
+                unregister(scope, this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get();
+        }
+    }
+
+    /**
+     * A single execution: it keeps the worker and the real subscription, so disposing it cancels the
+     * upstream, and it notifies its end to start the executions waiting. It owns a child of the scope
+     * current when it was created, cancelled with it, where the work built inside registers.
+     */
+    private final class Run extends AtomicBoolean implements Observer<T>, Disposable {
+        final Observer<T> subscriber;
+        final Bundle bundle;
+        final int limit;
+        final Deadline deadline;
+        final CancellationScope scope;
+        volatile Disposable upstream;
+        /**
+         * The worker or the task subscribing the observable on the thread executor
+         */
+        volatile Disposable task;
+
+        Run(Observer<T> subscriber, Bundle bundle, int limit, Deadline deadline, CancellationScope parentScope) {
+            this.subscriber = subscriber;
+            this.bundle = bundle;
+            this.limit = limit;
+            this.deadline = deadline;
+            this.scope = parentScope != null ? parentScope.child() : null;
+            if(scope != null) {
+                // disposes the run at once when the parent is cancelled already
+                scope.add(this);
+            }
+        }
+
+        void start() {
+            if(isDisposed()) {
+                onRunTerminated(this);
+                return;
+            }
+
+            List<T> cached = getCachedResult(bundle);
+            if(cached != null) {
+                Observable<T> observable = Observable.fromIterable(cached);
+                if(mPostExecutionThread != Schedulers.trampoline()) {
+                    observable = observable.observeOn(mPostExecutionThread);
+                }
+                observable.subscribe(this);
+                return;
+            }
+
+            if(mExecutionMode == ExecutionMode.SINGLE_HOP) {
+                if(mThreadExecutor == Schedulers.trampoline()) {
+                    subscribeObservable(true);
+                    return;
+                }
+                Disposable task = mThreadExecutor.scheduleDirect(() -> subscribeObservable(true));
+                this.task = task;
+                if(isDisposed()) {
+                    task.dispose();
+                }
+                return;
+            }
+
+            Scheduler.Worker worker = mThreadExecutor.createWorker();
+            this.task = worker;
+            if(isDisposed()) {
+                worker.dispose();
+                return;
+            }
+            worker.schedule(() -> subscribeObservable(false));
+        }
+
+        /**
+         * Builds and subscribes the observable, on the thread executor
+         *
+         * @param skipSameScheduler true to not hop when the post execution scheduler is the thread executor
+         */
+        private void subscribeObservable(boolean skipSameScheduler) {
+            if(isDisposed()) return;
+
+            Observable<T> observable;
+            try {
+                observable = createObservable(bundle, deadline, scope);
+            } catch (Throwable e) {
+                observable = Observable.error(e);
+            }
+            if(!skipSameScheduler || (mPostExecutionThread != mThreadExecutor && mPostExecutionThread != Schedulers.trampoline())) {
+                observable = observable.observeOn(mPostExecutionThread);
+            }
+            observable.subscribe(this);
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+            // lost against a terminate on another thread: dispose it here, once
+            if(!RUN_UPSTREAM.compareAndSet(this, null, d)) {
+                d.dispose();
+                return;
+            }
+            subscriber.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T t) {
+            subscriber.onNext(t);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            try {
+                subscriber.onError(e);
+            } finally {
+                terminate(false);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                subscriber.onComplete();
+            } finally {
+                terminate(false);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            terminate(true);
+        }
+
+        private void terminate(boolean cancelled) {
+            if(compareAndSet(false, true)) {
+                // some operators, like doOnDispose, don't tolerate a dispose racing with another one
+                Disposable d = RUN_UPSTREAM.getAndSet(this, TERMINATED);
+                if(d != null && d != TERMINATED) d.dispose();
+                Disposable t = task;
+                if(t != null) t.dispose();
+                if(scope != null) {
+                    scope.remove(this);
+                    // the work still running after a completed execution, like a resource observed through
+                    // LiveData, stays in the parent scope until it is cancelled
+                    if(cancelled || scope.size() == 0) scope.cancel();
+                }
+                onRunTerminated(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return get();
         }
     }
 }
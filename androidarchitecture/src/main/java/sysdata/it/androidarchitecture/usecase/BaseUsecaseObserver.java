@@ -2,19 +2,26 @@ package sysdata.it.androidarchitecture.usecase;
 
 import android.arch.lifecycle.MutableLiveData;
 import android.os.Bundle;
+import android.os.Looper;
 import android.util.Log;
 
 import java.util.HashMap;
 import java.util.Map;
 
+import io.reactivex.CompletableObserver;
+import io.reactivex.MaybeObserver;
 import io.reactivex.Observer;
+import io.reactivex.SingleObserver;
 import io.reactivex.disposables.Disposable;
+import sysdata.it.androidarchitecture.repository.DeadlineExceededException;
+import sysdata.it.androidarchitecture.repository.Resource;
 
 /**
  * Created by Andrea Guitto on 29/03/2018.
  */
 
-public abstract class BaseUsecaseObserver<RepositoryModel> implements Observer<RepositoryModel> {
+public abstract class BaseUsecaseObserver<RepositoryModel> implements Observer<RepositoryModel>,
+        SingleObserver<RepositoryModel>, MaybeObserver<RepositoryModel>, CompletableObserver {
 
     private Class<? extends BaseUseCase> observedUsecaseClass;
 
@@ -39,13 +46,14 @@ public abstract class BaseUsecaseObserver<RepositoryModel> implements Observer<R
         Class<? extends BaseUseCase<RepositoryModel>> observedUsecaseClass;
         MutableLiveData liveDataHandled;
         ActionMap<RepositoryModel, ?> actionMap;
+        ErrorMap errorMap;
 
         public Builder(Class<? extends BaseUseCase<RepositoryModel>> clazz) {
             observedUsecaseClass = clazz;
         }
 
         public BaseUsecaseObserver<RepositoryModel> build(){
-            return new BuiltUsecaseObserver<>(observedUsecaseClass, liveDataHandled, actionMap);
+            return new BuiltUsecaseObserver<>(observedUsecaseClass, liveDataHandled, actionMap, errorMap);
         }
 
         public <UIModel> Builder<RepositoryModel> map(MutableLiveData<UIModel> liveData, ActionMap<RepositoryModel,UIModel> action) {
@@ -53,6 +61,16 @@ public abstract class BaseUsecaseObserver<RepositoryModel> implements Observer<R
             actionMap = action;
             return this;
         }
+
+        /**
+         * Maps the errors to the value posted on the live data of {@link #map}. Without it only a
+         * {@link DeadlineExceededException} is posted, as a failed {@link Resource} when the live data
+         * holds a Resource
+         */
+        public <UIModel> Builder<RepositoryModel> mapError(ErrorMap<UIModel> error) {
+            errorMap = error;
+            return this;
+        }
     }
 
     /**
@@ -63,18 +81,57 @@ public abstract class BaseUsecaseObserver<RepositoryModel> implements Observer<R
     private static final class BuiltUsecaseObserver<RepositoryModel,UIModel> extends BaseUsecaseObserver<RepositoryModel> {
         MutableLiveData<UIModel> liveDataHandled;
         ActionMap<RepositoryModel,UIModel> actionMap;
+        ErrorMap<UIModel> errorMap;
 
-        public BuiltUsecaseObserver(Class<? extends BaseUseCase<RepositoryModel>> observedUsecaseClass, MutableLiveData<UIModel> liveDataHandled, ActionMap<RepositoryModel, UIModel> actionMap) {
+        public BuiltUsecaseObserver(Class<? extends BaseUseCase<RepositoryModel>> observedUsecaseClass, MutableLiveData<UIModel> liveDataHandled, ActionMap<RepositoryModel, UIModel> actionMap, ErrorMap<UIModel> errorMap) {
             super();
             setObservedUsecaseClass(observedUsecaseClass);
             this.liveDataHandled = liveDataHandled;
             this.actionMap = actionMap;
+            this.errorMap = errorMap;
         }
 
         @Override
         public void onNext(RepositoryModel repositoryModel) {
             if(actionMap != null && liveDataHandled != null) {
-                liveDataHandled.postValue(actionMap.onAction(repositoryModel));
+                post(actionMap.onAction(repositoryModel));
+            }
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            super.onError(e);
+            if(liveDataHandled != null) {
+                UIModel failure = failureOf(e);
+                if(failure != null) {
+                    post(failure);
+                }
+            }
+        }
+
+        /**
+         * @return the value showing the error, null to leave the live data as it is
+         */
+        @SuppressWarnings("unchecked")
+        private UIModel failureOf(Throwable e) {
+            if(errorMap != null) {
+                return errorMap.onError(e);
+            }
+            // the resource shown would stay running, the work has been cancelled
+            Object shown = liveDataHandled.getValue();
+            if(e instanceof DeadlineExceededException && shown instanceof Resource) {
+                return (UIModel) Resource.error(e.getMessage(), ((Resource<?>) shown).data, e);
+            }
+            return null;
+        }
+
+        private void post(UIModel value) {
+            // already on the main thread when the use case delivers there, no need of another hop
+            Looper mainLooper = Looper.getMainLooper();
+            if(mainLooper != null && mainLooper.getThread() == Thread.currentThread()) {
+                liveDataHandled.setValue(value);
+            } else {
+                liveDataHandled.postValue(value);
             }
         }
     }
@@ -83,6 +140,10 @@ public abstract class BaseUsecaseObserver<RepositoryModel> implements Observer<R
         UIModel onAction(RepositoryModel model);
     }
 
+    public interface ErrorMap<UIModel> {
+        UIModel onError(Throwable e);
+    }
+
     public interface UseCaseMap {
         Bundle onAction(Object... model);
     }
@@ -92,6 +153,16 @@ public abstract class BaseUsecaseObserver<RepositoryModel> implements Observer<R
 
     }
 
+    /**
+     * The value of a {@link BaseSingleUseCase} or a {@link BaseMaybeUseCase}, by default delivered like
+     * the ones of an observable followed by its completion
+     */
+    @Override
+    public void onSuccess(RepositoryModel repositoryModel) {
+        onNext(repositoryModel);
+        onComplete();
+    }
+
     @Override
     public void onError(Throwable e) {
         Log.e("BaseObs", "onError: ", e);
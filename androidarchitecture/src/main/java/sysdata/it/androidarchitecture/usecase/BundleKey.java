@@ -0,0 +1,81 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A stable, comparable copy of the content of a {@link Bundle}: two bundles with the same keys and equal
+ * values give equal keys whatever their insertion order. Arrays are compared by content and nested
+ * bundles recursively, the other values through their equals.
+ */
+public final class BundleKey {
+
+    public static final BundleKey EMPTY = new BundleKey(Collections.<String, Object>emptyMap());
+
+    private final Map<String, Object> values;
+    private final int hashCode;
+
+    private BundleKey(Map<String, Object> values) {
+        this.values = values;
+        this.hashCode = values.hashCode();
+    }
+
+    public static BundleKey of(Bundle bundle) {
+        if(bundle == null || bundle.isEmpty()) {
+            return EMPTY;
+        }
+
+        Map<String, Object> values = new TreeMap<>();
+        for (String key : bundle.keySet()) {
+            values.put(key, normalize(bundle.get(key)));
+        }
+        return new BundleKey(values);
+    }
+
+    private static Object normalize(Object value) {
+        if(value instanceof Bundle) {
+            return of((Bundle) value);
+        }
+        if(value != null && value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            List<Object> items = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                items.add(normalize(Array.get(value, i)));
+            }
+            return items;
+        }
+        if(value instanceof List) {
+            List<Object> items = new ArrayList<>(((List<?>) value).size());
+            for (Object item : (List<?>) value) {
+                items.add(normalize(item));
+            }
+            return items;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof BundleKey)) return false;
+        BundleKey other = (BundleKey) o;
+        return hashCode == other.hashCode && values.equals(other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return values.toString();
+    }
+}
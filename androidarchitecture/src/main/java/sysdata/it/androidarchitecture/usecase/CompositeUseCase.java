@@ -0,0 +1,247 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import sysdata.it.androidarchitecture.repository.CancellationScope;
+import sysdata.it.androidarchitecture.repository.Deadline;
+import sysdata.it.androidarchitecture.repository.Resource;
+
+/**
+ * A use case running independent child use cases in parallel, like the data sources of a dashboard.
+ * <p>
+ * Children declared by {@link #declareChildren(Bundle)} run on the thread executor of the composite, at
+ * most {@link #getMaxConcurrency()} at a time, each one with its own cache, retries and circuit and with
+ * the deadline of the composite. Every value of a child emits a {@link Resource} with the results so far:
+ * loading while some child is running, then success, or failure if a child failed. The first content is
+ * ready as soon as the fastest child answers.
+ * </p>
+ */
+public abstract class CompositeUseCase extends BaseUseCase<Resource<CompositeUseCase.Results>> {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 3;
+
+    public CompositeUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+        super(threadExecutor, postExecutionThread);
+    }
+
+    /**
+     * Declares the children of an execution with their parameters, names must be unique or the execution
+     * fails with an {@link IllegalArgumentException}
+     */
+    protected abstract List<Child<?>> declareChildren(Bundle b);
+
+    /**
+     * Children running at the same time, the other ones wait
+     */
+    protected int getMaxConcurrency() {
+        return DEFAULT_MAX_CONCURRENCY;
+    }
+
+    protected static <R> Child<R> child(String name, BaseUseCase<R> usecase, Bundle parameters) {
+        return new Child<>(name, usecase, parameters);
+    }
+
+    /**
+     * Declares a child created through {@link UseCaseFactories}, on the schedulers of the composite
+     */
+    @SuppressWarnings("unchecked")
+    protected <R> Child<R> child(String name, Class<? extends BaseUseCase<R>> usecaseClass, Bundle parameters) {
+        BaseUseCase<R> usecase = UseCaseFactories.obtain(usecaseClass, SchedulerProviders.of(getThreadExecutor(), getPostExecutionThread()));
+        return new Child<>(name, usecase, parameters);
+    }
+
+    @Override
+    protected final Observable<Resource<Results>> buildUseCaseObservable(Bundle b) {
+        List<Child<?>> children = declareChildren(b);
+        if(children == null || children.isEmpty()) {
+            return Observable.just(Resource.success(Results.initial(Collections.<String>emptyList())));
+        }
+
+        // built inside the execution, the children inherit the budget remaining and its scope
+        Deadline deadline = Deadline.current();
+        CancellationScope scope = CancellationScope.current();
+        List<String> names = new ArrayList<>(children.size());
+        List<Observable<Event>> sources = new ArrayList<>(children.size());
+        for (Child<?> child : children) {
+            if(names.contains(child.name)) {
+                throw new IllegalArgumentException("Duplicate child name " + child.name + " in " + getClass().getSimpleName());
+            }
+            names.add(child.name);
+            sources.add(child.events(deadline, scope).subscribeOn(getThreadExecutor()));
+        }
+
+        return Observable.merge(sources, Math.max(1, getMaxConcurrency()))
+                .scan(Results.initial(names), Results::apply)
+                .skip(1)
+                .map(CompositeUseCase::toResource);
+    }
+
+    private static Resource<Results> toResource(Results results) {
+        if(!results.isComplete()) {
+            return Resource.loading(results);
+        }
+        Throwable error = results.getFirstError();
+        if(error != null || results.hasFailures()) {
+            return Resource.error("Composite use case failed: " + results.getFailedNames(), results, error);
+        }
+        return Resource.success(results);
+    }
+
+    /**
+     * A child use case with its parameters
+     */
+    public static final class Child<R> {
+        final String name;
+        final BaseUseCase<R> usecase;
+        final Bundle parameters;
+
+        Child(String name, BaseUseCase<R> usecase, Bundle parameters) {
+            this.name = name;
+            this.usecase = usecase;
+            this.parameters = parameters;
+        }
+
+        Observable<Event> events(Deadline deadline, CancellationScope scope) {
+            return Observable.defer(() -> usecase.buildExecution(parameters, deadline, scope))
+                    .map(value -> Event.value(name, value))
+                    .concatWith(Observable.fromCallable(() -> Event.done(name)))
+                    .onErrorReturn(error -> Event.failed(name, error));
+        }
+    }
+
+    static final class Event {
+        final String name;
+        final Object value;
+        final boolean done;
+        final Throwable error;
+
+        private Event(String name, Object value, boolean done, Throwable error) {
+            this.name = name;
+            this.value = value;
+            this.done = done;
+            this.error = error;
+        }
+
+        static Event value(String name, Object value) {
+            return new Event(name, value, false, null);
+        }
+
+        static Event done(String name) {
+            return new Event(name, null, true, null);
+        }
+
+        static Event failed(String name, Throwable error) {
+            return new Event(name, null, true, error);
+        }
+    }
+
+    /**
+     * The results of the children so far, by name. A child emitting {@link Resource} takes its status,
+     * the other ones are running until they complete.
+     */
+    public static final class Results {
+        private final Map<String, Object> values;
+        private final Map<String, Resource.Status> statuses;
+        private final Map<String, Throwable> errors;
+
+        private Results(Map<String, Object> values, Map<String, Resource.Status> statuses, Map<String, Throwable> errors) {
+            this.values = values;
+            this.statuses = statuses;
+            this.errors = errors;
+        }
+
+        static Results initial(List<String> names) {
+            Map<String, Resource.Status> statuses = new LinkedHashMap<>();
+            for (String name : names) {
+                statuses.put(name, Resource.Status.RUNNING);
+            }
+            return new Results(Collections.<String, Object>emptyMap(), Collections.unmodifiableMap(statuses),
+                    Collections.<String, Throwable>emptyMap());
+        }
+
+        Results apply(Event event) {
+            Map<String, Object> values = this.values;
+            Map<String, Resource.Status> statuses = new LinkedHashMap<>(this.statuses);
+            Map<String, Throwable> errors = this.errors;
+
+            if(event.error != null) {
+                errors = new LinkedHashMap<>(errors);
+                errors.put(event.name, event.error);
+                errors = Collections.unmodifiableMap(errors);
+                statuses.put(event.name, Resource.Status.FAILED);
+            } else if(event.done) {
+                if(statuses.get(event.name) != Resource.Status.FAILED) {
+                    statuses.put(event.name, Resource.Status.SUCCESS);
+                }
+            } else {
+                values = new LinkedHashMap<>(values);
+                values.put(event.name, event.value);
+                values = Collections.unmodifiableMap(values);
+                if(event.value instanceof Resource) {
+                    statuses.put(event.name, ((Resource) event.value).status);
+                }
+            }
+            return new Results(values, Collections.unmodifiableMap(statuses), errors);
+        }
+
+        /**
+         * @return the last value of the child, null if it did not emit yet
+         */
+        @SuppressWarnings("unchecked")
+        public <R> R get(String name) {
+            return (R) values.get(name);
+        }
+
+        public Resource.Status getStatus(String name) {
+            return statuses.get(name);
+        }
+
+        public Throwable getError(String name) {
+            return errors.get(name);
+        }
+
+        public Set<String> getNames() {
+            return statuses.keySet();
+        }
+
+        /**
+         * @return true when no child is running
+         */
+        public boolean isComplete() {
+            for (Resource.Status status : statuses.values()) {
+                if(status == Resource.Status.RUNNING) return false;
+            }
+            return true;
+        }
+
+        public boolean hasFailures() {
+            return statuses.containsValue(Resource.Status.FAILED);
+        }
+
+        List<String> getFailedNames() {
+            List<String> failed = new ArrayList<>();
+            for (Map.Entry<String, Resource.Status> entry : statuses.entrySet()) {
+                if(entry.getValue() == Resource.Status.FAILED) failed.add(entry.getKey());
+            }
+            return failed;
+        }
+
+        Throwable getFirstError() {
+            return errors.isEmpty() ? null : errors.values().iterator().next();
+        }
+
+        @Override
+        public String toString() {
+            return "Results{statuses=" + statuses + ", values=" + values + "}";
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package sysdata.it.androidarchitecture.usecase;
+
+/**
+ * Defines what {@link BaseUseCase} does when it is executed while a previous execution is still running
+ */
+public enum ConcurrencyPolicy {
+    /**
+     * The previous execution is disposed and the new one starts, the default
+     */
+    CANCEL_PREVIOUS,
+    /**
+     * The new execution is ignored while another one is running
+     */
+    DROP_WHILE_RUNNING,
+    /**
+     * The new execution starts after the running ones are terminated, one at a time
+     */
+    QUEUE,
+    /**
+     * The new execution runs in parallel with the running ones, up to the max concurrency,
+     * over that it waits the end of one of them
+     */
+    MERGE
+}
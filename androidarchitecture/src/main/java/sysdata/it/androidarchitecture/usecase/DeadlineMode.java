@@ -0,0 +1,19 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import sysdata.it.androidarchitecture.repository.Deadline;
+
+/**
+ * Defines which part of an execution of {@link BaseUseCase} its {@link Deadline} bounds
+ */
+public enum DeadlineMode {
+    /**
+     * Only the wait of the first value or of the termination: the values coming later keep flowing, as the
+     * ones of a db observed for changes or of a network bound resource. The default
+     */
+    FIRST_VALUE,
+    /**
+     * The whole execution: when the deadline expires the work is cancelled even after some values, for
+     * use cases expected to complete
+     */
+    WHOLE_EXECUTION
+}
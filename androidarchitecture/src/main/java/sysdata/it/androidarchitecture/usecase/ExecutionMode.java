@@ -0,0 +1,19 @@
+package sysdata.it.androidarchitecture.usecase;
+
+/**
+ * Defines how {@link BaseUseCase} subscribes the observable of an execution
+ */
+public enum ExecutionMode {
+    /**
+     * A worker of the thread executor builds and subscribes the observable, then the values hop to the
+     * post execution thread. Disposing the execution disposes the worker and the upstream, the default
+     */
+    WORKER,
+    /**
+     * A single task scheduled directly on the thread executor, without a worker, builds and subscribes the
+     * observable. The values hop to the post execution thread only when it is another scheduler and not
+     * {@link io.reactivex.schedulers.Schedulers#trampoline()}. Disposing the execution disposes the task and
+     * the upstream
+     */
+    SINGLE_HOP
+}
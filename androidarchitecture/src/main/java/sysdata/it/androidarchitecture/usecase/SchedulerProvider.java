@@ -0,0 +1,31 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import io.reactivex.Scheduler;
+import sysdata.it.androidarchitecture.Key;
+import sysdata.it.androidarchitecture.ProviderScope;
+
+/**
+ * Gives the schedulers of the use cases created by {@link sysdata.it.androidarchitecture.viewmodel.BaseArchitectureViewModel}.
+ * Register one with {@link #KEY} in a module to replace the default {@link SchedulerProviders#legacy()}.
+ * It is resolved for each use case created, so register it as {@link ProviderScope#SINGLETON}: each build
+ * creates new schedulers, a bounded pool for every use case would bound nothing.
+ * <pre>
+ * loader.registerProvider(SchedulerProvider.KEY, params -&gt; SchedulerProviders.builder().boundedIo(4).deliverOnMainThread().build(),
+ *         0, ProviderScope.SINGLETON);
+ * </pre>
+ * See {@link SchedulerProviders} for the shipped implementations.
+ */
+public interface SchedulerProvider {
+
+    Key<SchedulerProvider, Void> KEY = Key.of(SchedulerProvider.class);
+
+    /**
+     * @return the scheduler on which the use case builds and runs its observable
+     */
+    Scheduler threadExecutor(Class<? extends BaseUseCase> usecaseClass);
+
+    /**
+     * @return the scheduler on which the use case emits to its observer
+     */
+    Scheduler postExecutionThread(Class<? extends BaseUseCase> usecaseClass);
+}
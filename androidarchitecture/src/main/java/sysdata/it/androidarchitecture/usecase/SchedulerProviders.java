@@ -0,0 +1,160 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Scheduler;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * The shipped {@link SchedulerProvider}s
+ */
+public final class SchedulerProviders {
+
+    private static final SchedulerProvider LEGACY = new ConfiguredSchedulerProvider(Schedulers.io(), Schedulers.computation(),
+            Collections.<Class<?>, Scheduler[]>emptyMap());
+
+    private SchedulerProviders() {
+    }
+
+    /**
+     * The schedulers used when no provider is registered: unbounded {@link Schedulers#io()} for the work
+     * and {@link Schedulers#computation()} for the emissions
+     */
+    public static SchedulerProvider legacy() {
+        return LEGACY;
+    }
+
+    /**
+     * Runs and emits everything on the given scheduler, use a TestScheduler to move time manually or
+     * {@link Schedulers#trampoline()} to execute synchronously
+     */
+    public static SchedulerProvider test(Scheduler scheduler) {
+        return of(scheduler, scheduler);
+    }
+
+    /**
+     * Runs every use case on the given thread executor and emits on the given post execution thread
+     */
+    public static SchedulerProvider of(Scheduler threadExecutor, Scheduler postExecutionThread) {
+        return new ConfiguredSchedulerProvider(threadExecutor, postExecutionThread, Collections.<Class<?>, Scheduler[]>emptyMap());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A scheduler backed by at most the given number of threads, idle threads are released after a few seconds
+     */
+    public static Scheduler boundedScheduler(String name, int threads) {
+        int size = Math.max(1, threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 10, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return Schedulers.from(executor);
+    }
+
+    /**
+     * Builds a {@link SchedulerProvider}, by default it uses the legacy schedulers
+     */
+    public static final class Builder {
+        private Scheduler threadExecutor = Schedulers.io();
+        private Scheduler postExecutionThread = Schedulers.computation();
+        private final Map<Class<?>, Scheduler[]> overrides = new HashMap<>();
+
+        Builder() {
+        }
+
+        /**
+         * Runs the use cases on a pool of at most the given threads instead of the unbounded io one, each
+         * provider built has its own pool
+         */
+        public Builder boundedIo(int threads) {
+            return threadExecutor(boundedScheduler("UseCase-io", threads));
+        }
+
+        public Builder threadExecutor(Scheduler threadExecutor) {
+            this.threadExecutor = threadExecutor;
+            return this;
+        }
+
+        /**
+         * Emits on the main thread, observers updating a LiveData then set it without another hop
+         */
+        public Builder deliverOnMainThread() {
+            return postExecutionThread(AndroidSchedulers.mainThread());
+        }
+
+        /**
+         * Emits on the thread producing the values, without any hop
+         */
+        public Builder deliverDirect() {
+            return postExecutionThread(Schedulers.trampoline());
+        }
+
+        public Builder postExecutionThread(Scheduler postExecutionThread) {
+            this.postExecutionThread = postExecutionThread;
+            return this;
+        }
+
+        /**
+         * Uses different schedulers for a use case class, a null scheduler keeps the default one
+         */
+        public Builder override(Class<? extends BaseUseCase> usecaseClass, Scheduler threadExecutor, Scheduler postExecutionThread) {
+            overrides.put(usecaseClass, new Scheduler[]{threadExecutor, postExecutionThread});
+            return this;
+        }
+
+        public SchedulerProvider build() {
+            return new ConfiguredSchedulerProvider(threadExecutor, postExecutionThread, new HashMap<>(overrides));
+        }
+    }
+
+    private static final class ConfiguredSchedulerProvider implements SchedulerProvider {
+        private final Scheduler threadExecutor;
+        private final Scheduler postExecutionThread;
+        private final Map<Class<?>, Scheduler[]> overrides;
+
+        ConfiguredSchedulerProvider(Scheduler threadExecutor, Scheduler postExecutionThread, Map<Class<?>, Scheduler[]> overrides) {
+            this.threadExecutor = threadExecutor;
+            this.postExecutionThread = postExecutionThread;
+            this.overrides = overrides;
+        }
+
+        @Override
+        public Scheduler threadExecutor(Class<? extends BaseUseCase> usecaseClass) {
+            Scheduler[] override = overrides.get(usecaseClass);
+            return override != null && override[0] != null ? override[0] : threadExecutor;
+        }
+
+        @Override
+        public Scheduler postExecutionThread(Class<? extends BaseUseCase> usecaseClass) {
+            Scheduler[] override = overrides.get(usecaseClass);
+            return override != null && override[1] != null ? override[1] : postExecutionThread;
+        }
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.reactivex.Observable;
+
+/**
+ * Shares the upstream of the use cases returning true from {@link BaseUseCase#shareInFlight()}: executions
+ * of the same use case class with equal parameters running at the same time subscribe a single
+ * {@link BaseUseCase#buildUseCaseObservable(android.os.Bundle)} chain, replayed to all of them.
+ *
+ * The flight ends when the upstream terminates or all its subscribers are disposed, the next execution
+ * starts a new one.
+ */
+final class SingleFlight {
+
+    private static final ConcurrentHashMap<FlightKey, Observable<?>> flights = new ConcurrentHashMap<>();
+
+    private SingleFlight() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> Observable<T> share(Class<?> usecaseClass, BundleKey parameters, Callable<Observable<T>> source) {
+        FlightKey key = new FlightKey(usecaseClass, parameters);
+        Observable<T> flight = (Observable<T>) flights.get(key);
+        if(flight != null) {
+            return flight;
+        }
+
+        Observable<T>[] created = new Observable[1];
+        created[0] = Observable.defer(source)
+                .doFinally(() -> flights.remove(key, created[0]))
+                .replay()
+                .refCount();
+        flight = (Observable<T>) flights.putIfAbsent(key, created[0]);
+        return flight != null ? flight : created[0];
+    }
+
+    /**
+     * @return the number of flights running, for tests
+     */
+    static int size() {
+        return flights.size();
+    }
+
+    private static final class FlightKey {
+        final Class<?> usecaseClass;
+        final BundleKey parameters;
+
+        FlightKey(Class<?> usecaseClass, BundleKey parameters) {
+            this.usecaseClass = usecaseClass;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) return true;
+            if(!(o instanceof FlightKey)) return false;
+            FlightKey other = (FlightKey) o;
+            return usecaseClass == other.usecaseClass && parameters.equals(other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * usecaseClass.hashCode() + parameters.hashCode();
+        }
+    }
+}
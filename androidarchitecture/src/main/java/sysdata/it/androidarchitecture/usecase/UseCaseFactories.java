@@ -0,0 +1,122 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.util.Log;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.reactivex.Scheduler;
+import sysdata.it.androidarchitecture.DependencyManager;
+import sysdata.it.androidarchitecture.Key;
+
+/**
+ * Registry of the {@link UseCaseFactory}s, kept in {@link DependencyManager} with a key per use case class,
+ * and pool of the {@link BaseUseCase#isShareable() shareable} instances, one per use case class and schedulers.
+ *
+ * Use cases without a factory are still created through their (Scheduler, Scheduler) constructor.
+ */
+public final class UseCaseFactories {
+
+    private static final String TAG = "UseCaseFactories";
+
+    private static final ConcurrentHashMap<Class<?>, Key<UseCaseFactory, Void>> keys = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<SharedKey, BaseUseCase> shared = new ConcurrentHashMap<>();
+
+    private UseCaseFactories() {
+    }
+
+    public static Key<UseCaseFactory, Void> key(Class<? extends BaseUseCase> usecaseClass) {
+        Key<UseCaseFactory, Void> key = keys.get(usecaseClass);
+        if(key == null) {
+            Key<UseCaseFactory, Void> created = Key.of(UseCaseFactory.class, usecaseClass.getName());
+            key = keys.putIfAbsent(usecaseClass, created);
+            if(key == null) {
+                key = created;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Registers the factory of a use case class, call it from {@link sysdata.it.androidarchitecture.BaseModuleConfiguration#onClassProviderSetup}
+     */
+    public static <U extends BaseUseCase> void register(DependencyManager.ConfigurationDependencyLoader loader, Class<U> usecaseClass, UseCaseFactory<U> factory) {
+        loader.registerProvider(key(usecaseClass), params -> factory);
+    }
+
+    /**
+     * Returns the shared instance of a shareable use case running on the schedulers given by the provider,
+     * or creates a new one with its registered factory or through reflection
+     *
+     * @return the use case, null if it cannot be created
+     */
+    public static BaseUseCase obtain(Class<? extends BaseUseCase> usecaseClass, SchedulerProvider schedulers) {
+        Scheduler threadExecutor = schedulers.threadExecutor(usecaseClass);
+        Scheduler postExecutionThread = schedulers.postExecutionThread(usecaseClass);
+        SharedKey key = new SharedKey(usecaseClass, threadExecutor, postExecutionThread);
+        BaseUseCase usecase = shared.get(key);
+        if(usecase != null) {
+            return usecase;
+        }
+
+        usecase = create(usecaseClass, threadExecutor, postExecutionThread);
+        if(usecase != null && usecase.isShareable()) {
+            BaseUseCase previous = shared.putIfAbsent(key, usecase);
+            if(previous != null) {
+                usecase = previous;
+            }
+        }
+        return usecase;
+    }
+
+    /**
+     * Drops the shared instances of a use case class, the next {@link #obtain} creates a new one
+     */
+    public static void releaseShared(Class<? extends BaseUseCase> usecaseClass) {
+        for (Iterator<SharedKey> iterator = shared.keySet().iterator(); iterator.hasNext(); ) {
+            if(iterator.next().usecaseClass == usecaseClass) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static BaseUseCase create(Class<? extends BaseUseCase> usecaseClass, Scheduler threadExecutor, Scheduler postExecutionThread) {
+        UseCaseFactory<?> factory = DependencyManager.provide(key(usecaseClass), null);
+        try {
+            if(factory != null) {
+                return factory.create(threadExecutor, postExecutionThread);
+            }
+            return usecaseClass.getDeclaredConstructor(Scheduler.class, Scheduler.class)
+                    .newInstance(threadExecutor, postExecutionThread);
+        } catch (Exception e) {
+            Log.e(TAG, "Usecase cannot be instantiated by reflection! ", e);
+            return null;
+        }
+    }
+
+    private static final class SharedKey {
+        final Class<?> usecaseClass;
+        final Scheduler threadExecutor;
+        final Scheduler postExecutionThread;
+
+        SharedKey(Class<?> usecaseClass, Scheduler threadExecutor, Scheduler postExecutionThread) {
+            this.usecaseClass = usecaseClass;
+            this.threadExecutor = threadExecutor;
+            this.postExecutionThread = postExecutionThread;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) return true;
+            if(!(o instanceof SharedKey)) return false;
+            SharedKey other = (SharedKey) o;
+            return usecaseClass == other.usecaseClass && threadExecutor == other.threadExecutor
+                    && postExecutionThread == other.postExecutionThread;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * usecaseClass.hashCode() + System.identityHashCode(threadExecutor)) + System.identityHashCode(postExecutionThread);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import io.reactivex.Scheduler;
+
+/**
+ * Creates a use case without reflection, usually its constructor reference: {@code LoginUC::new}.
+ * Register it with {@link UseCaseFactories#register(sysdata.it.androidarchitecture.DependencyManager.ConfigurationDependencyLoader, Class, UseCaseFactory)}.
+ *
+ * @param <U> the use case type
+ */
+public interface UseCaseFactory<U extends BaseUseCase> {
+    U create(Scheduler threadExecutor, Scheduler postExecutionThread);
+}
@@ -0,0 +1,237 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+
+/**
+ * Results of the use cases returning a positive {@link BaseUseCase#resultCacheTtlMillis()}, keyed by use
+ * case class and parameters compared through {@link BundleKey}.
+ * <p>
+ * Only the executions completing without errors are stored, with all the values they emitted. Entries
+ * expire after the time to live of their class and the least recently used ones are evicted when the
+ * number of entries or their estimated size go over the limits set with {@link #setLimits(int, long)}.
+ * </p>
+ */
+public final class UseCaseResultCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+    public static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    /**
+     * Estimated size of a value whose size is unknown, see {@link #estimateBytes(Object)}
+     */
+    static final long OBJECT_BYTES = 64;
+
+    private static final LinkedHashMap<CacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private static int maxEntries = DEFAULT_MAX_ENTRIES;
+    private static long maxBytes = DEFAULT_MAX_BYTES;
+    private static long bytes;
+
+    private UseCaseResultCache() {
+    }
+
+    /**
+     * Changes the bounds of the cache, evicting the entries over them
+     */
+    public static void setLimits(int maxEntries, long maxBytes) {
+        synchronized (entries) {
+            UseCaseResultCache.maxEntries = Math.max(0, maxEntries);
+            UseCaseResultCache.maxBytes = Math.max(0, maxBytes);
+            trim();
+        }
+    }
+
+    /**
+     * Removes the results of a use case class, for all the parameters
+     */
+    public static void invalidate(Class<? extends BaseUseCase> usecaseClass) {
+        synchronized (entries) {
+            Iterator<Map.Entry<CacheKey, Entry>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<CacheKey, Entry> entry = iterator.next();
+                if(entry.getKey().usecaseClass == usecaseClass) {
+                    bytes -= entry.getValue().bytes;
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the result of a use case class for the given parameters
+     */
+    public static void invalidate(Class<? extends BaseUseCase> usecaseClass, Bundle parameters) {
+        synchronized (entries) {
+            Entry removed = entries.remove(new CacheKey(usecaseClass, BundleKey.of(parameters)));
+            if(removed != null) {
+                bytes -= removed.bytes;
+            }
+        }
+    }
+
+    public static void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+        }
+    }
+
+    public static int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the estimated size of the stored results
+     */
+    public static long byteSize() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    /**
+     * @return the values stored for the parameters, null if missing or expired
+     */
+    @SuppressWarnings("unchecked")
+    static <T> List<T> get(Class<?> usecaseClass, BundleKey parameters) {
+        CacheKey key = new CacheKey(usecaseClass, parameters);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if(entry == null) {
+                return null;
+            }
+            if(entry.expiresAt - System.nanoTime() <= 0) {
+                entries.remove(key);
+                bytes -= entry.bytes;
+                return null;
+            }
+            return (List<T>) entry.values;
+        }
+    }
+
+    /**
+     * Stores the values emitted by the source when it completes, each subscription records its own values.
+     * An execution emitting a value not {@link BaseUseCase#isCacheableResult(Object) cacheable} is not stored
+     */
+    static <T> Observable<T> record(Class<?> usecaseClass, BundleKey parameters, long ttlMillis, BaseUseCase<T> usecase, Observable<T> source) {
+        return Observable.defer(() -> {
+            List<T> values = new ArrayList<>();
+            return source.doOnNext(values::add)
+                    .doOnComplete(() -> put(new CacheKey(usecaseClass, parameters), values, ttlMillis, usecase));
+        });
+    }
+
+    private static <T> void put(CacheKey key, List<T> values, long ttlMillis, BaseUseCase<T> usecase) {
+        long size = OBJECT_BYTES;
+        for (T value : values) {
+            if(!usecase.isCacheableResult(value)) {
+                return;
+            }
+            size += usecase.estimateResultBytes(value);
+        }
+        Entry entry = new Entry(Collections.unmodifiableList(values), size,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis));
+
+        synchronized (entries) {
+            Entry previous = entries.put(key, entry);
+            if(previous != null) {
+                bytes -= previous.bytes;
+            }
+            bytes += size;
+            trim();
+        }
+    }
+
+    private static void trim() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext() && (entries.size() > maxEntries || bytes > maxBytes)) {
+            bytes -= eldest.next().bytes;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * A rough estimate of the memory held by a value: strings, arrays and collections are measured by
+     * content, the other objects count as {@link #OBJECT_BYTES}
+     */
+    public static long estimateBytes(Object value) {
+        if(value == null) {
+            return 0;
+        }
+        if(value instanceof CharSequence) {
+            return 40 + 2L * ((CharSequence) value).length();
+        }
+        if(value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return 16;
+        }
+        if(value instanceof byte[]) {
+            return 16 + ((byte[]) value).length;
+        }
+        if(value.getClass().isArray() && value.getClass().getComponentType().isPrimitive()) {
+            return 16 + 8L * Array.getLength(value);
+        }
+        if(value instanceof Object[]) {
+            long size = 16;
+            for (Object item : (Object[]) value) {
+                size += 4 + estimateBytes(item);
+            }
+            return size;
+        }
+        if(value instanceof Collection) {
+            long size = 32;
+            for (Object item : (Collection<?>) value) {
+                size += 8 + estimateBytes(item);
+            }
+            return size;
+        }
+        return OBJECT_BYTES;
+    }
+
+    private static final class Entry {
+        final List<?> values;
+        final long bytes;
+        final long expiresAt;
+
+        Entry(List<?> values, long bytes, long expiresAt) {
+            this.values = values;
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class CacheKey {
+        final Class<?> usecaseClass;
+        final BundleKey parameters;
+
+        CacheKey(Class<?> usecaseClass, BundleKey parameters) {
+            this.usecaseClass = usecaseClass;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(this == o) return true;
+            if(!(o instanceof CacheKey)) return false;
+            CacheKey other = (CacheKey) o;
+            return usecaseClass == other.usecaseClass && parameters.equals(other.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * usecaseClass.hashCode() + parameters.hashCode();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package sysdata.it.androidarchitecture.viewmodel;
+
+import sysdata.it.androidarchitecture.usecase.ConcurrencyPolicy;
+
+/**
+ * Execution options of an action, read from its {@link UCAction}
+ */
+public final class ActionConfig {
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+
+    public static final ActionConfig DEFAULT = new ActionConfig(ConcurrencyPolicy.CANCEL_PREVIOUS, DEFAULT_MAX_CONCURRENCY);
+
+    private final ConcurrencyPolicy policy;
+    private final int maxConcurrency;
+    private final long debounceMillis;
+    private final long throttleMillis;
+    private final boolean distinctUntilChanged;
+
+    public ActionConfig(ConcurrencyPolicy policy, int maxConcurrency) {
+        this(policy, maxConcurrency, 0, 0, false);
+    }
+
+    public ActionConfig(ConcurrencyPolicy policy, int maxConcurrency, long debounceMillis, long throttleMillis, boolean distinctUntilChanged) {
+        this.policy = policy != null ? policy : ConcurrencyPolicy.CANCEL_PREVIOUS;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.throttleMillis = Math.max(0, throttleMillis);
+        this.distinctUntilChanged = distinctUntilChanged;
+    }
+
+    static ActionConfig of(UCAction annotation) {
+        if(annotation.policy() == ConcurrencyPolicy.CANCEL_PREVIOUS && annotation.debounceMillis() <= 0
+                && annotation.throttleMillis() <= 0 && !annotation.distinctUntilChanged()) {
+            return DEFAULT;
+        }
+        return new ActionConfig(annotation.policy(), annotation.maxConcurrency(), annotation.debounceMillis(),
+                annotation.throttleMillis(), annotation.distinctUntilChanged());
+    }
+
+    public ConcurrencyPolicy getPolicy() {
+        return policy;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public long getDebounceMillis() {
+        return debounceMillis;
+    }
+
+    public long getThrottleMillis() {
+        return throttleMillis;
+    }
+
+    public boolean isDistinctUntilChanged() {
+        return distinctUntilChanged;
+    }
+
+    /**
+     * @return true if the requests pass through an {@link ActionGate} before the execution
+     */
+    public boolean isGated() {
+        return debounceMillis > 0 || throttleMillis > 0 || distinctUntilChanged;
+    }
+}
@@ -0,0 +1,34 @@
+package sysdata.it.androidarchitecture.viewmodel;
+
+import android.os.Bundle;
+
+import sysdata.it.androidarchitecture.usecase.BaseUsecaseObserver;
+
+/**
+ * Dispatches the actions of a {@link BaseArchitectureViewModel} with direct field reads and method calls.
+ * It is generated by the androidarchitectureprocessor as {@code <ViewModel>_ActionDispatcher} from
+ * {@link UCAction}, {@link UCActionsSet} and {@link UCPrepareBundle}; view models not processed fall back to reflection.
+ *
+ * @param <VM> the view model type
+ */
+public interface ActionDispatcher<VM extends BaseArchitectureViewModel> {
+
+    String SUFFIX = "_ActionDispatcher";
+
+    /**
+     * @return the observer linked to the action or null if the action is unknown
+     */
+    BaseUsecaseObserver getObserver(VM viewModel, String actionName);
+
+    /**
+     * @return the options of the action, {@link ActionConfig#DEFAULT} if the action is unknown
+     */
+    ActionConfig getConfig(String actionName);
+
+    boolean hasBundlePreparer(String actionName);
+
+    /**
+     * @return the bundle prepared by the method linked to the action, null if the action has no preparer
+     */
+    Bundle prepareBundle(VM viewModel, String actionName, Object[] parameters);
+}
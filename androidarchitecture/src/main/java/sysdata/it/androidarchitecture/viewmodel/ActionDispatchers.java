@@ -0,0 +1,54 @@
+package sysdata.it.androidarchitecture.viewmodel;
+
+import android.util.Log;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds, once per class, the generated {@link ActionDispatcher} of a view model
+ */
+final class ActionDispatchers {
+
+    private static final String TAG = "ActionDispatchers";
+    private static final Object NOT_GENERATED = new Object();
+    private static final ConcurrentHashMap<Class<?>, Object> dispatchers = new ConcurrentHashMap<>();
+
+    private ActionDispatchers() {
+    }
+
+    /**
+     * @return the generated dispatcher, or null if the class was not processed
+     */
+    @SuppressWarnings("unchecked")
+    static <VM extends BaseArchitectureViewModel> ActionDispatcher<VM> find(Class<VM> viewModelClass) {
+        Object dispatcher = dispatchers.get(viewModelClass);
+        if(dispatcher == null) {
+            dispatcher = load(viewModelClass);
+            Object previous = dispatchers.putIfAbsent(viewModelClass, dispatcher);
+            if(previous != null) {
+                dispatcher = previous;
+            }
+        }
+        return dispatcher != NOT_GENERATED ? (ActionDispatcher<VM>) dispatcher : null;
+    }
+
+    static String dispatcherClassName(Class<?> viewModelClass) {
+        String name = viewModelClass.getName();
+        int lastDot = name.lastIndexOf('.');
+        String packagePrefix = lastDot >= 0 ? name.substring(0, lastDot + 1) : "";
+        return packagePrefix + name.substring(lastDot + 1).replace('$', '_') + ActionDispatcher.SUFFIX;
+    }
+
+    private static Object load(Class<?> viewModelClass) {
+        try {
+            Class<?> dispatcherClass = Class.forName(dispatcherClassName(viewModelClass), true, viewModelClass.getClassLoader());
+            return dispatcherClass.getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            return NOT_GENERATED;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // the exceptions thrown by the constructor come wrapped in an InvocationTargetException
+            Log.e(TAG, "Generated dispatcher of " + viewModelClass.getName() + " cannot be instantiated, using reflection", e);
+            return NOT_GENERATED;
+        }
+    }
+}
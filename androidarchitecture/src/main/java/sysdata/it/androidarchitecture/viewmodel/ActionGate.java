@@ -0,0 +1,82 @@
+package sysdata.it.androidarchitecture.viewmodel;
+
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.BiConsumer;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+import sysdata.it.androidarchitecture.repository.Deadline;
+
+/**
+ * Collapses the bursts of requests of an action following its {@link ActionConfig}: only the requests
+ * surviving distinct, throttle and debounce reach the execution.
+ *
+ * Windows are measured on the given scheduler, which also delivers the surviving requests, so the
+ * view model main thread scheduler keeps the executions on the main thread and a TestScheduler
+ * makes them deterministic.
+ */
+final class ActionGate {
+
+    private static final String TAG = "ActionGate";
+
+    private final Subject<Request> requests = PublishSubject.<Request>create().toSerialized();
+    private final Disposable disposable;
+
+    /**
+     * @param execution receives the parameters and the deadline of the surviving requests
+     */
+    ActionGate(ActionConfig config, Scheduler scheduler, BiConsumer<Object[], Deadline> execution) {
+        Observable<Request> gated = requests;
+        if(config.isDistinctUntilChanged()) {
+            gated = gated.distinctUntilChanged((previous, next) -> Arrays.deepEquals(previous.parameters, next.parameters));
+        }
+        if(config.getThrottleMillis() > 0) {
+            gated = gated.throttleFirst(config.getThrottleMillis(), TimeUnit.MILLISECONDS, scheduler);
+        }
+        if(config.getDebounceMillis() > 0) {
+            gated = gated.debounce(config.getDebounceMillis(), TimeUnit.MILLISECONDS, scheduler);
+        }
+        disposable = gated.subscribe(request -> {
+            try {
+                execution.accept(request.parameters, request.deadline);
+            } catch (Exception e) {
+                // the gate must survive a failed execution, or the action would stop working
+                Log.e(TAG, "Exception executing gated action", e);
+            }
+        });
+    }
+
+    void submit(Object[] parameters) {
+        submit(parameters, null);
+    }
+
+    /**
+     * Submits a request whose deadline keeps running while it waits in the windows
+     */
+    void submit(Object[] parameters, Deadline deadline) {
+        requests.onNext(new Request(parameters, deadline));
+    }
+
+    void dispose() {
+        disposable.dispose();
+    }
+
+    /**
+     * Rx does not accept null items, a request travels with its parameters, null ones included
+     */
+    private static final class Request {
+        final Object[] parameters;
+        final Deadline deadline;
+
+        Request(Object[] parameters, Deadline deadline) {
+            this.parameters = parameters;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package sysdata.it.androidarchitecture.viewmodel;
+
+import sysdata.it.androidarchitecture.repository.Deadline;
+import sysdata.it.androidarchitecture.usecase.BaseUseCase;
+import sysdata.it.androidarchitecture.usecase.BaseUsecaseObserver;
+
+/**
+ * An action of a {@link BaseArchitectureViewModel} bound with {@link BaseArchitectureViewModel#bind(String)}:
+ * observer and use case are resolved once and reused by every execution.
+ *
+ * The use case is obtained again only after the view model releases its observers. Debounce, throttle
+ * and distinct windows of the action are applied to the executions of the handle alone. Unlike
+ * {@link BaseArchitectureViewModel#execute(String, Object...)} a handle caches its state without
+ * synchronization, it must be used from a single thread.
+ */
+public final class ActionHandle {
+
+    private final BaseArchitectureViewModel viewModel;
+    private final String actionName;
+    private final ActionConfig config;
+    private final BaseUsecaseObserver usecaseObserver;
+    private BaseUseCase usecase;
+    private int usecaseGeneration = -1;
+    private ActionGate gate;
+
+    ActionHandle(BaseArchitectureViewModel viewModel, String actionName, ActionConfig config, BaseUsecaseObserver usecaseObserver) {
+        this.viewModel = viewModel;
+        this.actionName = actionName;
+        this.config = config;
+        this.usecaseObserver = usecaseObserver;
+    }
+
+    public String getActionName() {
+        return actionName;
+    }
+
+    public ActionConfig getConfig() {
+        return config;
+    }
+
+    public void execute() {
+        executeWith(null, null);
+    }
+
+    /**
+     * Passes the parameters exactly like {@link BaseArchitectureViewModel#execute(String, Object...)}
+     */
+    public void execute(Object... parameters) {
+        executeWith(parameters, null);
+    }
+
+    /**
+     * Executes the action within a deadline, see {@link BaseArchitectureViewModel#execute(Deadline, String, Object...)}
+     */
+    public void executeWithin(Deadline deadline, Object... parameters) {
+        executeWith(parameters, deadline);
+    }
+
+    private void executeWith(Object[] parameters, Deadline deadline) {
+        if(config.isGated()) {
+            if(gate == null) {
+                gate = viewModel.createGate(config, this::executeNow);
+            }
+            gate.submit(parameters, deadline);
+        } else {
+            executeNow(parameters, deadline);
+        }
+    }
+
+    private void executeNow(Object[] parameters, Deadline deadline) {
+        viewModel.executeUseCase(actionName, config, getUsecase(), usecaseObserver, parameters, deadline);
+    }
+
+    private BaseUseCase getUsecase() {
+        int generation = viewModel.getUsecaseGeneration();
+        if(usecase == null || usecaseGeneration != generation) {
+            usecase = usecaseObserver != null ? viewModel.obtainUseCase(actionName, usecaseObserver) : null;
+            usecaseGeneration = generation;
+        }
+        return usecase;
+    }
+}
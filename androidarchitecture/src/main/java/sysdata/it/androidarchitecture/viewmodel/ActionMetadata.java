@@ -0,0 +1,138 @@
+package sysdata.it.androidarchitecture.viewmodel;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Actions of a view model class read from {@link UCAction}, {@link UCActionsSet} and {@link UCPrepareBundle}.
+ * The scan runs once per class and its result is shared by all the instances, members are made
+ * accessible while scanning so invocations never change their accessibility.
+ */
+final class ActionMetadata {
+
+    private static final ConcurrentHashMap<Class<?>, ActionMetadata> cache = new ConcurrentHashMap<>();
+
+    final Map<String, MemberAccessor> observers;
+    final Map<String, MemberAccessor> preparers;
+    final Map<String, ActionConfig> configs;
+
+    private ActionMetadata(Map<String, MemberAccessor> observers, Map<String, MemberAccessor> preparers, Map<String, ActionConfig> configs) {
+        this.observers = Collections.unmodifiableMap(observers);
+        this.preparers = Collections.unmodifiableMap(preparers);
+        this.configs = Collections.unmodifiableMap(configs);
+    }
+
+    ActionConfig getConfig(String actionName) {
+        ActionConfig config = configs.get(actionName);
+        return config != null ? config : ActionConfig.DEFAULT;
+    }
+
+    static ActionMetadata of(Class<?> viewModelClass) {
+        ActionMetadata metadata = cache.get(viewModelClass);
+        if(metadata == null) {
+            ActionMetadata scanned = scan(viewModelClass);
+            metadata = cache.putIfAbsent(viewModelClass, scanned);
+            if(metadata == null) {
+                metadata = scanned;
+            }
+        }
+        return metadata;
+    }
+
+    private static ActionMetadata scan(Class<?> viewModelClass) {
+        Map<String, MemberAccessor> observers = new HashMap<>();
+        Map<String, MemberAccessor> preparers = new HashMap<>();
+        Map<String, ActionConfig> configs = new HashMap<>();
+
+        for (Field field : viewModelClass.getDeclaredFields()) {
+            MemberAccessor accessor = null;
+            for (Annotation annotation : field.getDeclaredAnnotations()) {
+                if(annotation instanceof UCAction || annotation instanceof UCActionsSet) {
+                    if(accessor == null) accessor = new FieldAccessor(field);
+                    putActions(observers, configs, annotation, accessor);
+                }
+            }
+        }
+
+        Method[] declaredMethods = viewModelClass.getDeclaredMethods();
+        if(declaredMethods != null) {
+            for (Method method : declaredMethods) {
+                MemberAccessor accessor = null;
+                for (Annotation annotation : method.getDeclaredAnnotations()) {
+                    if(annotation instanceof UCAction || annotation instanceof UCActionsSet) {
+                        if(accessor == null) accessor = new MethodAccessor(method);
+                        putActions(observers, configs, annotation, accessor);
+                    } else if(annotation instanceof UCPrepareBundle) {
+                        if(accessor == null) accessor = new MethodAccessor(method);
+                        preparers.put(((UCPrepareBundle) annotation).actionName(), accessor);
+                    }
+                }
+            }
+        }
+        return new ActionMetadata(observers, preparers, configs);
+    }
+
+    private static void putActions(Map<String, MemberAccessor> observers, Map<String, ActionConfig> configs,
+                                   Annotation annotation, MemberAccessor accessor) {
+        if(annotation instanceof UCAction) {
+            ActionConfig config = ActionConfig.of((UCAction) annotation);
+            for (String action : ((UCAction) annotation).actions()) {
+                observers.put(action, accessor);
+                configs.put(action, config);
+            }
+        } else {
+            UCAction[] actionsSet = ((UCActionsSet) annotation).value();
+            if(actionsSet != null) {
+                for (UCAction ucAction : actionsSet) {
+                    putActions(observers, configs, ucAction, accessor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a field or calls a method of a view model, bound once to its member
+     */
+    abstract static class MemberAccessor {
+
+        abstract Object get(Object target, Object[] parameters) throws InvocationTargetException, IllegalAccessException;
+
+        Object get(Object target) throws InvocationTargetException, IllegalAccessException {
+            return get(target, null);
+        }
+    }
+
+    private static final class FieldAccessor extends MemberAccessor {
+        private final Field field;
+
+        FieldAccessor(Field field) {
+            field.setAccessible(true);
+            this.field = field;
+        }
+
+        @Override
+        Object get(Object target, Object[] parameters) throws IllegalAccessException {
+            return field.get(target);
+        }
+    }
+
+    private static final class MethodAccessor extends MemberAccessor {
+        private final Method method;
+
+        MethodAccessor(Method method) {
+            method.setAccessible(true);
+            this.method = method;
+        }
+
+        @Override
+        Object get(Object target, Object[] parameters) throws InvocationTargetException, IllegalAccessException {
+            return method.invoke(target, parameters);
+        }
+    }
+}
@@ -6,116 +6,130 @@ import android.os.StrictMode;
 import android.text.TextUtils;
 import android.util.Log;
 
-import java.io.InvalidObjectException;
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.reactivex.Scheduler;
-import io.reactivex.schedulers.Schedulers;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.functions.BiConsumer;
 import sysdata.it.androidarchitecture.BuildConfig;
+import sysdata.it.androidarchitecture.DependencyManager;
+import sysdata.it.androidarchitecture.DependencyScope;
+import sysdata.it.androidarchitecture.Key;
+import sysdata.it.androidarchitecture.repository.CancellationScope;
+import sysdata.it.androidarchitecture.repository.Deadline;
 import sysdata.it.androidarchitecture.usecase.BaseUseCase;
 import sysdata.it.androidarchitecture.usecase.BaseUsecaseObserver;
+import sysdata.it.androidarchitecture.usecase.ConcurrencyPolicy;
+import sysdata.it.androidarchitecture.usecase.SchedulerProvider;
+import sysdata.it.androidarchitecture.usecase.SchedulerProviders;
+import sysdata.it.androidarchitecture.usecase.UseCaseFactories;
 
 /**
  * Created by Brando Baldassarre on 08/12/2017.
+ *
+ * Actions can be executed from any thread: the state shared by the executions is kept in concurrent
+ * maps keyed by observer and action, and the metadata read once is published through volatile fields,
+ * so the executions from the main thread alone take no lock.
  */
 
 public abstract class BaseArchitectureViewModel extends ViewModel {
 
     protected String TAG = this.getClass().getSimpleName();
 
-    Map<BaseUsecaseObserver, BaseUseCase> singleInstanceUsecaseMap = new HashMap<>();
+    Map<BaseUsecaseObserver, BaseUseCase> singleInstanceUsecaseMap = new ConcurrentHashMap<>();
 
-    Map<String, ObserverMetaData> observers;
-    Map<String, PrepareBundleMetaData> preActions;
+    /**
+     * Actions read through reflection, shared by all the instances of the class. Immutable, a thread
+     * reading it while another one loads it at most reads it again.
+     */
+    private volatile ActionMetadata metadata;
+    private final AtomicInteger usecaseGeneration = new AtomicInteger();
 
-    private void loadAnnotations() {
-        observers = new HashMap<>();
-        preActions = new HashMap<>();
+    /**
+     * Gates of the debounced, throttled or distinct actions, disposed in {@link #onCleared()}
+     */
+    private final Map<String, ActionGate> actionGates = new ConcurrentHashMap<>();
+    private final List<ActionGate> createdGates = new CopyOnWriteArrayList<>();
 
-        Field[] declaredFields = getClass().getDeclaredFields();
-        for (Field field : declaredFields) {
-            Annotation[] annotationList = field.getDeclaredAnnotations();
-            populatePropertyAnnotationMap(field, annotationList);
-        }
+    /**
+     * The generated dispatcher, when null actions are resolved through reflection. Written before
+     * the volatile flag, so that a thread seeing the flag sees the dispatcher too.
+     */
+    private ActionDispatcher<BaseArchitectureViewModel> dispatcher;
+    private volatile boolean dispatcherLoaded;
 
-        Method[] declaredMethods = getClass().getDeclaredMethods();
-        if(declaredMethods != null) {
-            for (Method declaredMethod : declaredMethods) {
-                Annotation[] annotationList = declaredMethod.getDeclaredAnnotations();
-                populateMethodsAnnotationMap(declaredMethod, annotationList);
-            }
-        }
+    private final DependencyScope dependencyScope = new DependencyScope();
+
+    /**
+     * The root of the executions of this view model and of the work they start, cancelled in {@link #onCleared()}
+     */
+    private final CancellationScope cancellationScope = CancellationScope.root();
+
+    /**
+     * The scope holding the objects of providers registered with {@link sysdata.it.androidarchitecture.ProviderScope#VIEW_MODEL},
+     * it is closed in {@link #onCleared()}
+     */
+    protected DependencyScope getDependencyScope() {
+        return dependencyScope;
     }
 
-    private void populatePropertyAnnotationMap(Field field, Annotation[] annotationList) {
-        for (Annotation annotation : annotationList) {
-            if(annotation instanceof UCAction) {
-                populateObserversCollection((UCAction) annotation, field);
-            }else if(annotation instanceof UCActionsSet) {
-                UCAction[] actionsSet = ((UCActionsSet) annotation).value();
-                if(actionsSet != null) {
-                    for (UCAction ucAction : actionsSet)
-                        populateObserversCollection(ucAction, field);
-                }
-            }
-        }
+    protected <T> T provideObject(Class<T> clazz, String key) {
+        return provideObject(clazz, key, null, null);
     }
 
-    private void populateMethodsAnnotationMap(Method declaredMethod, Annotation[] annotationList) {
-        for (Annotation annotation : annotationList) {
-            if(annotation instanceof UCAction) {
-                populateObserversCollection((UCAction) annotation, declaredMethod);
-            }else if(annotation instanceof UCActionsSet) {
-                UCAction[] actionsSet = ((UCActionsSet) annotation).value();
-                if(actionsSet != null) {
-                    for (UCAction ucAction : actionsSet)
-                        populateObserversCollection(ucAction, declaredMethod);
-                }
-            }else if(annotation instanceof UCPrepareBundle) {
-                populatePreActionCollection((UCPrepareBundle) annotation, declaredMethod);
-            }
-        }
+    protected <T> T provideObject(Class<T> clazz, String key, Bundle bundle, String group) {
+        return DependencyManager.provideObject(clazz, key, bundle, group, null, dependencyScope);
     }
 
-    private void populateObserversCollection(UCAction annotation, Object field) {
-        ObserverMetaData data = null;
-        if(field instanceof Field) {
-            data = new ObserverMetaData(annotation, (Field) field, null);
-        }else if(field instanceof Method) {
-            data = new ObserverMetaData(annotation,null, (Method) field);
-        }
+    protected <T> T provide(Class<T> type) {
+        return DependencyManager.provide(type, dependencyScope);
+    }
 
-        String[] actions = data.actions;
-        for (String action : actions) {
-            observers.put(action, data);
-        }
+    protected <T, P> T provide(Key<T, P> key, P params) {
+        return DependencyManager.provide(key, params, dependencyScope);
     }
 
-    private void populatePreActionCollection(UCPrepareBundle annotation, Object field) {
-        PrepareBundleMetaData data = null;
-        if(field instanceof Field) {
-            data = new PrepareBundleMetaData(annotation, (Field) field, null);
-        }else if(field instanceof Method) {
-            data = new PrepareBundleMetaData(annotation,null, (Method) field);
+    private ActionMetadata getMetadata() {
+        ActionMetadata loaded = metadata;
+        if(loaded == null) {
+            loaded = ActionMetadata.of(getClass());
+            metadata = loaded;
         }
+        return loaded;
+    }
 
-        preActions.put(annotation.actionName(), data);
+    @SuppressWarnings("unchecked")
+    private ActionDispatcher<BaseArchitectureViewModel> getDispatcher() {
+        if(!dispatcherLoaded) {
+            dispatcher = (ActionDispatcher<BaseArchitectureViewModel>) ActionDispatchers.find(getClass());
+            dispatcherLoaded = true;
+        }
+        return dispatcher;
     }
 
     protected Bundle onPreparingBundle(String actionName, Object[] parameters) {
         Bundle returnValue = null;
 
-        if(preActions != null) {
-            PrepareBundleMetaData prepareBundleMetaData = preActions.get(actionName);
-            if (prepareBundleMetaData != null) {
+        ActionDispatcher<BaseArchitectureViewModel> dispatcher = getDispatcher();
+        if(dispatcher != null) {
+            if(dispatcher.hasBundlePreparer(actionName)) {
+                try {
+                    returnValue = dispatcher.prepareBundle(this, actionName, parameters);
+                } catch (Exception e) {
+                    Log.e(TAG, "Exception preparing bundle of action ( actionName = "+actionName+" , parameters = "+logObjectParameters(parameters)+" ) . "
+                            + "Probably you are passing wrong parameters to method annotated with @UCPrepareBundle in you ViewModel or the line where you call execute() has some unexpected parameter (maybe null).", e);
+                }
+            }
+        } else {
+            ActionMetadata.MemberAccessor preparer = getMetadata().preparers.get(actionName);
+            if (preparer != null) {
                 try {
-                    returnValue = (Bundle) prepareBundleMetaData.retrieveObject(this, parameters);
+                    returnValue = (Bundle) preparer.get(this, parameters);
                 } catch (Exception e) {
                     Log.e(TAG, "Exception preparing bundle of action ( actionName = "+actionName+" , parameters = "+logObjectParameters(parameters)+" ) . "
                             + "Probably you are passing wrong parameters to method annotated with @UCPrepareBundle in you ViewModel or the line where you call execute() has some unexpected parameter (maybe null).", e);
@@ -131,54 +145,151 @@ public abstract class BaseArchitectureViewModel extends ViewModel {
     }
 
     public void execute(String actionName, Object... parameters) {
+        execute(null, actionName, parameters);
+    }
 
-        Class<? extends BaseUseCase> usecaseClass = null;
-        BaseUseCase usecase = null;
-        BaseUsecaseObserver usecaseObserver = null;
+    /**
+     * Executes the action within a deadline: when it expires the work of the use case is cancelled, and
+     * the use cases and repositories it builds inherit the budget remaining. It can be called from any
+     * thread, the observer is notified on the post execution thread of the use case.
+     *
+     * @param deadline the deadline, null for none
+     */
+    public void execute(Deadline deadline, String actionName, Object... parameters) {
+        ActionConfig config = resolveConfig(actionName);
+        if(config.isGated()) {
+            ActionGate gate = actionGates.get(actionName);
+            if(gate == null) {
+                ActionGate created = createGate(config, (gatedParameters, gatedDeadline) -> executeNow(actionName, config, gatedParameters, gatedDeadline));
+                gate = actionGates.putIfAbsent(actionName, created);
+                if(gate == null) {
+                    gate = created;
+                } else {
+                    // another thread created the gate first
+                    created.dispose();
+                    createdGates.remove(created);
+                }
+            }
+            gate.submit(parameters, deadline);
+        } else {
+            executeNow(actionName, config, parameters, deadline);
+        }
+    }
+
+    private void executeNow(String actionName, ActionConfig config, Object[] parameters, Deadline deadline) {
+        BaseUsecaseObserver usecaseObserver = resolveObserver(actionName);
+        BaseUseCase usecase = obtainUseCase(actionName, usecaseObserver);
+        executeUseCase(actionName, config, usecase, usecaseObserver, parameters, deadline);
+    }
+
+    /**
+     * The scheduler measuring debounce and throttle windows and delivering the gated executions,
+     * by default the main thread. Tests can return a TestScheduler to move time manually.
+     */
+    protected Scheduler getActionScheduler() {
+        return AndroidSchedulers.mainThread();
+    }
+
+    ActionGate createGate(ActionConfig config, BiConsumer<Object[], Deadline> execution) {
+        ActionGate gate = new ActionGate(config, getActionScheduler(), execution);
+        createdGates.add(gate);
+        return gate;
+    }
+
+    /**
+     * Resolves once the observer linked to the action, the returned handle executes it without
+     * looking it up again. Use it for actions executed many times, like pagination or searches.
+     */
+    public ActionHandle bind(String actionName) {
+        return new ActionHandle(this, actionName, resolveConfig(actionName), resolveObserver(actionName));
+    }
+
+    ActionConfig resolveConfig(String actionName) {
+        ActionDispatcher<BaseArchitectureViewModel> dispatcher = getDispatcher();
+        if(dispatcher != null) {
+            return dispatcher.getConfig(actionName);
+        }
+        return getMetadata().getConfig(actionName);
+    }
 
-        if(observers == null || preActions == null) {
-            loadAnnotations();
+    BaseUsecaseObserver resolveObserver(String actionName) {
+        BaseUsecaseObserver usecaseObserver = null;
+        if(TextUtils.isEmpty(actionName)) {
+            return null;
         }
 
-        if(!TextUtils.isEmpty(actionName)) {
-            ObserverMetaData observerMetaData = observers.get(actionName);
-            if (observerMetaData != null) {
-                try {
-                    usecaseObserver = (BaseUsecaseObserver) observerMetaData.retrieveObject(this);
-                    usecaseClass = usecaseObserver.getObservedUsecaseClass();
-                }  catch (Exception e) {
-                    Log.e(TAG, "Exception retrieving observer linked to action = "+actionName, e);
+        ActionDispatcher<BaseArchitectureViewModel> dispatcher = getDispatcher();
+        try {
+            if(dispatcher != null) {
+                usecaseObserver = dispatcher.getObserver(this, actionName);
+            } else {
+                ActionMetadata.MemberAccessor observerAccessor = getMetadata().observers.get(actionName);
+                if (observerAccessor != null) {
+                    usecaseObserver = (BaseUsecaseObserver) observerAccessor.get(this);
                 }
             }
+        }  catch (Exception e) {
+            Log.e(TAG, "Exception retrieving observer linked to action = "+actionName, e);
         }
+        return usecaseObserver;
+    }
 
-        if(usecaseClass == null) Log.e(TAG, "Warning no usecase associated with action "+actionName);
+    BaseUseCase obtainUseCase(String actionName, BaseUsecaseObserver usecaseObserver) {
+        Class<? extends BaseUseCase> usecaseClass = usecaseObserver != null ? usecaseObserver.getObservedUsecaseClass() : null;
+        if(usecaseClass == null) {
+            Log.e(TAG, "Warning no usecase associated with action "+actionName);
+            return null;
+        }
 
-        if(usecaseClass != null ) {
-            usecase = singleInstanceUsecaseMap.get(usecaseObserver);
-            if(usecase == null) {
-                try {
-                    usecase = usecaseClass.getDeclaredConstructor(Scheduler.class, Scheduler.class).newInstance(Schedulers.io(), Schedulers.computation());
-                    singleInstanceUsecaseMap.put(usecaseObserver, usecase);
-                } catch (Exception e) {
-                    Log.e(TAG, "Usecase cannot be instantiated by reflection! ", e);
+        BaseUseCase usecase = singleInstanceUsecaseMap.get(usecaseObserver);
+        if(usecase == null) {
+            usecase = UseCaseFactories.obtain(usecaseClass, getSchedulerProvider());
+            if(usecase != null) {
+                // the executions of an observer must share its instance, the one of another thread may have won
+                BaseUseCase previous = singleInstanceUsecaseMap.putIfAbsent(usecaseObserver, usecase);
+                if(previous != null) {
+                    usecase = previous;
                 }
             }
         }
+        return usecase;
+    }
 
+    /**
+     * The schedulers of the use cases created by this view model: the {@link SchedulerProvider} registered
+     * with {@link SchedulerProvider#KEY}, or the legacy io and computation schedulers. It is called for each
+     * use case created, an override must return the same provider instead of building a new one
+     */
+    protected SchedulerProvider getSchedulerProvider() {
+        SchedulerProvider provider = provide(SchedulerProvider.KEY, null);
+        return provider != null ? provider : SchedulerProviders.legacy();
+    }
+
+    /**
+     * Incremented each time use cases are released, so that {@link ActionHandle}s obtain them again
+     */
+    int getUsecaseGeneration() {
+        return usecaseGeneration.get();
+    }
+
+    @SuppressWarnings("unchecked")
+    void executeUseCase(String actionName, ActionConfig config, BaseUseCase usecase, BaseUsecaseObserver usecaseObserver, Object[] parameters, Deadline deadline) {
         if(usecase == null)  Log.e(TAG, "Warning no usecase associated with action "+actionName);
         if(usecaseObserver == null) Log.e(TAG, "Warning no observer associated with action "+actionName);
 
         if(usecase != null && usecaseObserver != null){
-            // first unsubscribe last one
-            if(usecase != null) {
+            // first unsubscribe last one, the other policies and shared usecases are handled by the usecase
+            if(config.getPolicy() == ConcurrencyPolicy.CANCEL_PREVIOUS && !usecase.isShareable()) {
                 usecase.unsubscribe();
             }
             // then execute other one
             Bundle bundle = onPreparingBundle(actionName, parameters);
             try {
-                Log.d(TAG, "Executing action ( actionName = "+actionName+" , parameters = "+logBundleParameters(bundle) +" ) ");
-                usecase.execute(usecaseObserver, bundle);
+                if(BuildConfig.DEBUG) {
+                    Log.d(TAG, "Executing action ( actionName = "+actionName+" , parameters = "+logBundleParameters(bundle) +" ) ");
+                }
+                CancellationScope.callWith(cancellationScope,
+                        () -> usecase.execute(usecaseObserver, bundle, config.getPolicy(), config.getMaxConcurrency(), deadline));
             }catch (Exception e){
                 Log.e(TAG, "Exception executing action with details ( actionName = "+actionName+" , parameters = "+logBundleParameters(bundle)+" ). Probably something went wrong inside your current UseCase logic, check if Bundle are correct",e);
             }
@@ -193,7 +304,7 @@ public abstract class BaseArchitectureViewModel extends ViewModel {
             builder.append(""+object+",");
         }
         builder.append("\n} ");
-        return null;
+        return builder.toString();
     }
 
     private String logBundleParameters(Bundle parameters) {
@@ -205,11 +316,12 @@ public abstract class BaseArchitectureViewModel extends ViewModel {
                 builder.append("\n\t"+key+" : "+parameters.get(key));
         }
         builder.append("\n} ");
-        return null;
+        return builder.toString();
     }
 
     /**
-     * In this method you must call release(...) passing the usecase observer
+     * In this method you can call releaseObservers(...) passing the usecase observers, the executions
+     * not released are cancelled anyway with the {@link #getCancellationScope()}
      *
      */
     protected abstract void onReleaseObservers();
@@ -220,9 +332,13 @@ public abstract class BaseArchitectureViewModel extends ViewModel {
     protected void releaseObservers(BaseUsecaseObserver... usecaseObserverList){
         // disposableObserver.remove(usecaseObserver);
         if(usecaseObserverList != null && usecaseObserverList.length > 0) {
+            usecaseGeneration.incrementAndGet();
             for (BaseUsecaseObserver usecaseObserver : usecaseObserverList) {
                 BaseUseCase baseUseCase = singleInstanceUsecaseMap.get(usecaseObserver);
-                if (baseUseCase != null) {
+                if (baseUseCase != null && baseUseCase.isShareable()) {
+                    // the instance is used by other view models, only the executions of this observer are disposed
+                    baseUseCase.unsubscribe(usecaseObserver);
+                } else if (baseUseCase != null) {
                     baseUseCase.unsubscribe();
                 }
                 singleInstanceUsecaseMap.remove(usecaseObserver);
@@ -230,78 +346,33 @@ public abstract class BaseArchitectureViewModel extends ViewModel {
         }
     }
 
-    @Override
-    protected void onCleared() {
-        super.onCleared();
-
-
-        onReleaseObservers();
-
-        if(singleInstanceUsecaseMap != null && !singleInstanceUsecaseMap.isEmpty()){
-            for (BaseUsecaseObserver usecaseObserver : singleInstanceUsecaseMap.keySet()) {
-                Log.e(TAG, "Forgot to call clear() method in for object " + usecaseObserver.getClass().getSimpleName());
-            }
-        }
-    }
-
     /**
-     * Object used to handle parameters
+     * The scope cancelled in {@link #onCleared()}: register here the subscriptions started by the view model
+     * outside of the actions, or use {@link CancellationScope#child()} for a group cancelled on its own
      */
-    private static class BaseMetaData {
-        Method method;
-        Field field;
-
-        public BaseMetaData(Field actionField, Method method) {
-            this.method = method;
-            this.field = actionField;
-        }
-
-        public boolean isFieldAnnotation(){
-            return field != null;
-        }
-
-        public Object retrieveObject(Object parentObject) throws InvocationTargetException, IllegalAccessException {
-            Object returnValue = null;
-            if(isFieldAnnotation()) {
-                field.setAccessible(true);
-                returnValue = field.get(parentObject);
-                field.setAccessible(false);
-            } else {
-                returnValue = method.invoke(parentObject);
-            }
-
-            return returnValue;
-        }
-
-        public Object retrieveObject(Object parentObject, Object[] parameters) throws InvocationTargetException, IllegalAccessException {
-            Object returnValue = null;
-            if(isFieldAnnotation()) {
-                field.setAccessible(true);
-                returnValue = field.get(parentObject);
-                field.setAccessible(false);
-            } else {
-                returnValue = method.invoke(parentObject, parameters);
-            }
-
-            return returnValue;
-        }
+    protected CancellationScope getCancellationScope() {
+        return cancellationScope;
     }
 
-    private static final class ObserverMetaData extends BaseMetaData {
-        String[] actions;
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+
+        // the executions of the use cases, with the resources and the use cases they started
+        cancellationScope.cancel();
 
-        ObserverMetaData(UCAction annotation, Field field, Method method){
-            super(field, method);
-            actions = annotation.actions();
+        for (ActionGate gate : createdGates) {
+            gate.dispose();
         }
-    }
+        createdGates.clear();
+        actionGates.clear();
 
-    private static final class PrepareBundleMetaData extends BaseMetaData {
-        String actionName;
+        onReleaseObservers();
+        dependencyScope.close();
 
-        public PrepareBundleMetaData(UCPrepareBundle annotation, Field field, Method method) {
-            super(field, method);
-            this.actionName = annotation.actionName();
+        if(singleInstanceUsecaseMap != null && !singleInstanceUsecaseMap.isEmpty()){
+            // already cancelled, the use cases drop the executions waiting and the references to the observers
+            releaseObservers(singleInstanceUsecaseMap.keySet().toArray(new BaseUsecaseObserver[0]));
         }
     }
 }
@@ -4,6 +4,8 @@ import java.lang.annotation.Repeatable;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
+import sysdata.it.androidarchitecture.usecase.ConcurrencyPolicy;
+
 /**
  * Created by Andrea Guitto on 29/03/2018.
  */
@@ -12,4 +14,30 @@ import java.lang.annotation.RetentionPolicy;
 public @interface UCAction {
 
     String[] actions();
+
+    /**
+     * What to do when the action is executed while its use case is still running
+     */
+    ConcurrencyPolicy policy() default ConcurrencyPolicy.CANCEL_PREVIOUS;
+
+    /**
+     * Executions running in parallel with {@link ConcurrencyPolicy#MERGE}
+     */
+    int maxConcurrency() default ActionConfig.DEFAULT_MAX_CONCURRENCY;
+
+    /**
+     * When greater than 0 the action is executed only after no other execution was requested for this time,
+     * with the parameters of the last request
+     */
+    long debounceMillis() default 0;
+
+    /**
+     * When greater than 0 the action is executed at most once in this time, the first request wins
+     */
+    long throttleMillis() default 0;
+
+    /**
+     * When true a request with the same parameters of the previous one is ignored
+     */
+    boolean distinctUntilChanged() default false;
 }
@@ -0,0 +1,65 @@
+package sysdata.it.androidarchitecture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Typed keys registered and provided with their parameters type
+ */
+public class KeyTest {
+
+    private static final Key<String, Void> PLAIN = Key.of(String.class);
+    private static final Key<String, Integer> WITH_PARAMS = Key.withParams(String.class, Integer.class);
+
+    private DependencyManager.ConfigurationDependencyLoader loader;
+
+    @Before
+    public void setUp() {
+        loader = new DependencyManager.ConfigurationDependencyLoader();
+    }
+
+    @Test
+    public void register_rejectsTheSameKeyWithOtherParameters() {
+        loader.registerProvider(PLAIN, params -> "plain");
+        try {
+            loader.registerProvider(WITH_PARAMS, params -> "value " + params);
+            fail("The second parameters type is accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        assertEquals("plain", loader.provide(PLAIN, null, null));
+    }
+
+    @Test
+    public void provide_rejectsAKeyWithOtherParameters() {
+        loader.registerProvider(WITH_PARAMS, params -> "value " + params);
+        assertEquals("value 1", loader.provide(WITH_PARAMS, 1, null));
+
+        try {
+            loader.provide(PLAIN, null, null);
+            fail("The provider is called without its parameters");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            loader.provide(String.class, null);
+            fail("The provider is called without its parameters");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void unregister_releasesTheParametersType() {
+        TypedProvider<Void, String> plain = params -> "plain";
+        loader.registerProvider(PLAIN, plain);
+        loader.unregisterProvider(PLAIN, plain);
+
+        loader.registerProvider(WITH_PARAMS, params -> "value " + params);
+        assertEquals("value 2", loader.provide(WITH_PARAMS, 2, null));
+    }
+}
@@ -0,0 +1,202 @@
+package sysdata.it.androidarchitecture;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Order, policies and failures of the module setups
+ */
+public class ModuleLoaderTest {
+
+    private static final List<String> setups = Collections.synchronizedList(new ArrayList<>());
+
+    private DependencyManager.ConfigurationDependencyLoader loader;
+
+    @Before
+    public void setUp() {
+        setups.clear();
+        loader = new DependencyManager.ConfigurationDependencyLoader();
+    }
+
+    @Test
+    public void eagerModules_loadDependenciesFirst() {
+        loader.addModule(new TopModule());
+        loader.addModule(new MiddleModule());
+        loader.addModule(new BottomModule());
+        loader.loadAllElements();
+
+        assertEquals(Arrays.asList("bottom", "middle", "top"), setups);
+        assertEquals("top", loader.provideObject("top"));
+    }
+
+    @Test(timeout = 5000)
+    public void backgroundModule_waitsItsDependenciesAndIsAwaitedByItsKeys() throws InterruptedException {
+        loader.addModule(new BackgroundModule());
+        loader.addModule(new BottomModule());
+        loader.loadAllElements();
+
+        assertEquals("background", loader.provideObject("background"));
+        assertEquals(Arrays.asList("bottom", "background"), setups);
+        awaitBackgroundLoaded();
+    }
+
+    @Test
+    public void onDemandModule_loadsOnTheFirstLookupOfItsKeys() {
+        loader.addModule(new OnDemandModule());
+        loader.loadAllElements();
+        assertTrue(setups.isEmpty());
+
+        assertEquals("on demand", loader.provideObject("on demand"));
+        assertEquals("on demand", loader.provideObject("on demand"));
+        assertEquals(Collections.singletonList("on demand"), setups);
+    }
+
+    @Test(timeout = 5000)
+    public void failedEagerModule_stillStartsTheBackgroundModules() throws InterruptedException {
+        loader.addModule(new FailingModule());
+        loader.addModule(new BackgroundModule());
+        loader.addModule(new BottomModule());
+        loader.addModule(new DependentBackgroundModule());
+
+        try {
+            loader.loadAllElements();
+            fail("The eager failure is not thrown");
+        } catch (IllegalStateException e) {
+            assertEquals("failed", e.getCause().getMessage());
+        }
+
+        assertEquals("background", loader.provideObject("background"));
+        try {
+            loader.provideObject("dependent");
+            fail("The failure of the dependency is not thrown");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains(DependentBackgroundModule.class.getName()));
+        }
+        awaitBackgroundLoaded();
+    }
+
+    /**
+     * The background loading ends on the loader threads after the modules are published
+     */
+    private void awaitBackgroundLoaded() throws InterruptedException {
+        while (loader.isLoading()) {
+            Thread.sleep(1);
+        }
+    }
+
+    private abstract static class RecordingModule implements BaseModuleConfiguration {
+        private final String key;
+
+        RecordingModule(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void onClassProviderSetup(DependencyManager.ConfigurationDependencyLoader loader) {
+            setups.add(key);
+            loader.registerProvider(key, (param, context) -> key, 0, DependencyManager.DEFAULT_GROUP);
+        }
+
+        @Override
+        public void onClassProviderDiscard(DependencyManager.ConfigurationDependencyLoader loader) {
+        }
+
+        @Override
+        public Set<String> getProvidedKeys() {
+            return Collections.singleton(key);
+        }
+    }
+
+    static final class BottomModule extends RecordingModule {
+        BottomModule() {
+            super("bottom");
+        }
+    }
+
+    static final class MiddleModule extends RecordingModule {
+        MiddleModule() {
+            super("middle");
+        }
+
+        @Override
+        public Set<Class<? extends BaseModuleConfiguration>> getDependencies() {
+            return Collections.singleton(BottomModule.class);
+        }
+    }
+
+    static final class TopModule extends RecordingModule {
+        TopModule() {
+            super("top");
+        }
+
+        @Override
+        public Set<Class<? extends BaseModuleConfiguration>> getDependencies() {
+            return Collections.singleton(MiddleModule.class);
+        }
+    }
+
+    static final class BackgroundModule extends RecordingModule {
+        BackgroundModule() {
+            super("background");
+        }
+
+        @Override
+        public Set<Class<? extends BaseModuleConfiguration>> getDependencies() {
+            return Collections.singleton(BottomModule.class);
+        }
+
+        @Override
+        public LoadPolicy getLoadPolicy() {
+            return LoadPolicy.BACKGROUND;
+        }
+    }
+
+    static final class OnDemandModule extends RecordingModule {
+        OnDemandModule() {
+            super("on demand");
+        }
+
+        @Override
+        public LoadPolicy getLoadPolicy() {
+            return LoadPolicy.ON_DEMAND;
+        }
+    }
+
+    static final class FailingModule extends RecordingModule {
+        FailingModule() {
+            super("failing");
+        }
+
+        @Override
+        public void onClassProviderSetup(DependencyManager.ConfigurationDependencyLoader loader) {
+            throw new IllegalArgumentException("failed");
+        }
+    }
+
+    static final class DependentBackgroundModule extends RecordingModule {
+        DependentBackgroundModule() {
+            super("dependent");
+        }
+
+        @Override
+        public Set<Class<? extends BaseModuleConfiguration>> getDependencies() {
+            return new HashSet<>(Arrays.asList(FailingModule.class, BackgroundModule.class));
+        }
+
+        @Override
+        public LoadPolicy getLoadPolicy() {
+            return LoadPolicy.BACKGROUND;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package sysdata.it.androidarchitecture;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Copy-on-write snapshots of the registered providers
+ */
+public class ResolutionIndexTest {
+
+    private static final BaseClassProvider FIRST = (param, context) -> "first";
+    private static final BaseClassProvider SECOND = (param, context) -> "second";
+
+    @Test
+    public void builder_leavesThePublishedIndexUnchanged() {
+        ResolutionIndex published = ResolutionIndex.EMPTY.toBuilder()
+                .put("key", Collections.singletonList(new ProviderBinding(FIRST, 0, "group")))
+                .build();
+
+        ResolutionIndex changed = published.toBuilder()
+                .put("key", Collections.<ProviderBinding>emptyList())
+                .put("other", Collections.singletonList(new ProviderBinding(SECOND, 0, "group")))
+                .build();
+
+        assertSame(FIRST, published.find("key", "group").provider);
+        assertNull(published.find("other", "group"));
+        assertNull(changed.find("key", "group"));
+        assertSame(SECOND, changed.find("other", "group").provider);
+    }
+
+    @Test
+    public void put_resolvesTheLowestPriorityForEachGroup() {
+        ProviderBinding low = new ProviderBinding(FIRST, 1, "group");
+        ProviderBinding lowest = new ProviderBinding(SECOND, 0, "group");
+        ProviderBinding other = new ProviderBinding(FIRST, 5, "other");
+
+        ResolutionIndex index = ResolutionIndex.EMPTY.toBuilder().put("key", Arrays.asList(low, lowest, other)).build();
+
+        assertSame(lowest, index.find("key", "group"));
+        assertSame(other, index.find("key", "other"));
+        assertEquals(Arrays.asList(lowest, low, other), index.registrations("key"));
+    }
+
+    @Test
+    public void moduleSetup_seesItsOwnRegistrationsBeforeTheBatchIsPublished() {
+        DependencyManager.ConfigurationDependencyLoader loader = new DependencyManager.ConfigurationDependencyLoader();
+        Object[] seen = new Object[1];
+        loader.registerInBatch(() -> {
+            loader.registerProvider("key", FIRST, 0, DependencyManager.DEFAULT_GROUP);
+            seen[0] = loader.provideObject("key");
+            loader.registerProvider("key", SECOND, -1, DependencyManager.DEFAULT_GROUP);
+        });
+
+        assertEquals("first", seen[0]);
+        assertEquals("second", loader.provideObject("key"));
+
+        loader.unregisterProvider("key", SECOND);
+        assertEquals("first", loader.provideObject("key"));
+    }
+}
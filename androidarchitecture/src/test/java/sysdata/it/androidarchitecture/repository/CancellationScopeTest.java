@@ -0,0 +1,112 @@
+package sysdata.it.androidarchitecture.repository;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Subscriptions and child scopes cancelled together
+ */
+public class CancellationScopeTest {
+
+    @Test
+    public void cancel_cascadesToTheChildrenAndTheirSubscriptions() {
+        CancellationScope root = CancellationScope.root();
+        CancellationScope child = root.child();
+        CancellationScope grandchild = child.child();
+        Disposable inRoot = Disposables.empty();
+        Disposable inGrandchild = Disposables.empty();
+        root.add(inRoot);
+        grandchild.add(inGrandchild);
+
+        root.cancel();
+
+        assertTrue(root.isCancelled());
+        assertTrue(child.isCancelled());
+        assertTrue(grandchild.isCancelled());
+        assertTrue(inRoot.isDisposed());
+        assertTrue(inGrandchild.isDisposed());
+    }
+
+    @Test
+    public void cancelledChild_detachesFromItsParentOnly() {
+        CancellationScope root = CancellationScope.root();
+        CancellationScope child = root.child();
+        Disposable inRoot = Disposables.empty();
+        root.add(inRoot);
+        assertEquals(2, root.size());
+
+        child.cancel();
+
+        assertFalse(root.isCancelled());
+        assertFalse(inRoot.isDisposed());
+        assertEquals(1, root.size());
+    }
+
+    @Test
+    public void add_toACancelledScopeDisposesTheSubscription() {
+        CancellationScope root = CancellationScope.root();
+        CancellationScope child = root.child();
+        root.cancel();
+
+        Disposable late = Disposables.empty();
+        assertFalse(child.add(late));
+        assertTrue(late.isDisposed());
+        assertTrue(root.child().isCancelled());
+    }
+
+    @Test
+    public void size_countsAChildScopeAsOneEntry() {
+        CancellationScope root = CancellationScope.root();
+        CancellationScope child = root.child();
+        child.add(Disposables.empty());
+        child.add(Disposables.empty());
+
+        assertEquals(1, root.size());
+        assertEquals(2, child.size());
+    }
+
+    @Test
+    public void bind_registersEachSubscriptionForItsLifetime() {
+        CancellationScope scope = CancellationScope.root();
+        PublishSubject<String> first = PublishSubject.create();
+        AtomicInteger disposed = new AtomicInteger();
+
+        first.compose(scope.<String>bind()).test();
+        TestObserver<String> running = PublishSubject.<String>create()
+                .doOnDispose(disposed::incrementAndGet)
+                .compose(scope.<String>bind())
+                .test();
+        assertEquals(2, scope.size());
+
+        first.onComplete();
+        assertEquals(1, scope.size());
+
+        scope.cancel();
+        assertEquals(1, disposed.get());
+        running.assertNoErrors();
+    }
+
+    @Test
+    public void callWith_restoresThePreviousScope() throws Exception {
+        CancellationScope outer = CancellationScope.root();
+        CancellationScope inner = outer.child();
+
+        CancellationScope seen = CancellationScope.callWith(outer,
+                () -> CancellationScope.callWith(inner, CancellationScope::current));
+
+        assertSame(inner, seen);
+        assertNull(CancellationScope.current());
+    }
+}
@@ -0,0 +1,304 @@
+package sysdata.it.androidarchitecture.repository;
+
+import android.os.Bundle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.schedulers.TestScheduler;
+import io.reactivex.subjects.PublishSubject;
+import sysdata.it.androidarchitecture.usecase.BaseUseCase;
+import sysdata.it.androidarchitecture.usecase.BaseUsecaseObserver;
+import sysdata.it.androidarchitecture.usecase.UseCaseResultCache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Retry backoff and circuit breaker states, measured on a virtual time scheduler
+ */
+public class ResilienceTest {
+
+    private TestScheduler scheduler;
+    private AtomicInteger calls;
+
+    @Before
+    public void setUp() {
+        scheduler = new TestScheduler();
+        calls = new AtomicInteger();
+        CircuitBreaker.clearAll();
+        UseCaseResultCache.invalidateAll();
+    }
+
+    @After
+    public void tearDown() {
+        CircuitBreaker.clearAll();
+        UseCaseResultCache.invalidateAll();
+    }
+
+    private Observable<String> failingCall(int failures) {
+        return Observable.defer(() -> calls.incrementAndGet() <= failures
+                ? Observable.<String>error(new IOException("down"))
+                : Observable.just("ok"));
+    }
+
+    private RetryPolicy.Builder retry() {
+        return RetryPolicy.builder().maxAttempts(4).backoff(100, 1000).multiplier(2).jitter(0).scheduler(scheduler);
+    }
+
+    @Test
+    public void retry_waitsExponentialDelaysBetweenAttempts() {
+        TestObserver<String> observer = failingCall(3).compose(retry().build().apply()).test();
+        assertEquals(1, calls.get());
+
+        scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+        assertEquals(1, calls.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(2, calls.get());
+        scheduler.advanceTimeBy(200, TimeUnit.MILLISECONDS);
+        assertEquals(3, calls.get());
+        scheduler.advanceTimeBy(399, TimeUnit.MILLISECONDS);
+        assertEquals(3, calls.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        assertEquals(4, calls.get());
+        observer.assertResult("ok");
+    }
+
+    @Test
+    public void retry_stopsAtMaxAttempts() {
+        TestObserver<String> observer = failingCall(10).compose(retry().build().apply()).test();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+
+        assertEquals(4, calls.get());
+        observer.assertError(IOException.class);
+    }
+
+    @Test
+    public void retry_skipsErrorsRejectedByThePredicate() {
+        RetryPolicy policy = retry().retryOn(e -> !(e instanceof IOException)).build();
+        TestObserver<String> observer = failingCall(10).compose(policy.apply()).test();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+
+        assertEquals(1, calls.get());
+        observer.assertError(IOException.class);
+    }
+
+    @Test
+    public void retry_jitterShortensDelaysWithinTheFactor() {
+        RetryPolicy policy = retry().jitter(0.5).random(new Random(42)).build();
+        for (int retry = 1; retry <= 5; retry++) {
+            long delay = policy.getJitteredDelayMillis(retry);
+            long backoff = policy.getBackoffMillis(retry);
+            assertTrue(delay <= backoff && delay >= backoff / 2);
+        }
+        assertEquals(1000, policy.getBackoffMillis(5));
+    }
+
+    @Test
+    public void circuit_opensAfterConsecutiveFailuresAndFailsFast() {
+        CircuitBreaker breaker = CircuitBreaker.forKey("backend", 3, 5000, scheduler);
+        for (int i = 0; i < 3; i++) {
+            failingCall(10).compose(breaker.protect()).test().assertError(IOException.class);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        failingCall(10).compose(breaker.protect()).test().assertError(CircuitOpenException.class);
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void circuit_halfOpenTrialClosesOrReopensIt() {
+        CircuitBreaker breaker = CircuitBreaker.forKey("backend", 1, 5000, scheduler);
+        failingCall(2).compose(breaker.protect()).test().assertError(IOException.class);
+
+        scheduler.advanceTimeBy(5000, TimeUnit.MILLISECONDS);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        failingCall(2).compose(breaker.protect()).test().assertError(IOException.class);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        scheduler.advanceTimeBy(5000, TimeUnit.MILLISECONDS);
+        failingCall(2).compose(breaker.protect()).test().assertResult("ok");
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void circuit_isNotRetried() {
+        CircuitBreaker breaker = CircuitBreaker.forKey("backend", 2, 60000, scheduler);
+        TestObserver<String> observer = failingCall(10)
+                .compose(breaker.protect())
+                .compose(retry().build().apply())
+                .test();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+
+        assertEquals(2, calls.get());
+        observer.assertError(CircuitOpenException.class);
+    }
+
+    @Test
+    public void usecase_fallsBackWhileTheCircuitIsOpen() {
+        FlakyUseCase usecase = new FlakyUseCase(Schedulers.trampoline(), Schedulers.trampoline());
+        List<String> values = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        BaseUsecaseObserver<String> observer = new BaseUsecaseObserver<String>() {
+            @Override
+            public void onNext(String value) {
+                values.add(value);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                errors.add(e);
+            }
+        };
+
+        // the two attempts of the first execution open the circuit
+        usecase.execute(observer, null);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(2, usecase.calls);
+        assertEquals(1, errors.size());
+        assertEquals(CircuitBreaker.State.OPEN, CircuitBreaker.forKey("flaky").getState());
+
+        usecase.execute(observer, null);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(2, usecase.calls);
+        assertEquals(1, errors.size());
+        assertEquals("cached", values.get(0));
+    }
+
+    @Test
+    public void circuit_waitsTheOutcomeOfResources() {
+        CircuitBreaker breaker = CircuitBreaker.forKey("resources", 2, 5000, scheduler);
+        for (int i = 0; i < 2; i++) {
+            Observable.just(Resource.<String>loading(null), Resource.<String>error("down", null))
+                    .compose(breaker.protect())
+                    .test()
+                    .assertValueCount(2);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        scheduler.advanceTimeBy(5000, TimeUnit.MILLISECONDS);
+        PublishSubject<Resource<String>> trial = PublishSubject.create();
+        trial.compose(breaker.protect()).test();
+        trial.onNext(Resource.<String>loading(null));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        trial.onNext(Resource.success("ok"));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void usecase_opensTheCircuitOnFailedResources() {
+        AtomicInteger executions = new AtomicInteger();
+        BaseUseCase<Resource<String>> usecase = new BaseUseCase<Resource<String>>(Schedulers.trampoline(), Schedulers.trampoline()) {
+            @Override
+            protected Observable<Resource<String>> buildUseCaseObservable(Bundle b) {
+                executions.incrementAndGet();
+                return Observable.just(Resource.<String>loading(null), Resource.<String>error("down", null));
+            }
+
+            @Override
+            protected CircuitBreaker getCircuitBreaker() {
+                return CircuitBreaker.forKey("resources", 2, 60000, scheduler);
+            }
+
+            @Override
+            protected Observable<Resource<String>> onCircuitOpen(Bundle b, CircuitOpenException e) {
+                return Observable.just(Resource.error("circuit open", e));
+            }
+        };
+        List<Resource<String>> values = new ArrayList<>();
+        BaseUsecaseObserver<Resource<String>> observer = new BaseUsecaseObserver<Resource<String>>() {
+            @Override
+            public void onNext(Resource<String> value) {
+                values.add(value);
+            }
+        };
+
+        for (int i = 0; i < 3; i++) {
+            usecase.execute(observer, null);
+        }
+
+        assertEquals(2, executions.get());
+        assertEquals(CircuitBreaker.State.OPEN, CircuitBreaker.forKey("resources").getState());
+        assertTrue(values.get(values.size() - 1).throwable instanceof CircuitOpenException);
+    }
+
+    @Test
+    public void cachedUsecase_doesNotStoreTheFallbackNorFailedResources() {
+        FlakyUseCase usecase = new FlakyUseCase(Schedulers.trampoline(), Schedulers.trampoline()) {
+            @Override
+            protected long resultCacheTtlMillis() {
+                return 60000;
+            }
+        };
+        BaseUsecaseObserver<String> observer = new BaseUsecaseObserver<String>() {
+            @Override
+            public void onNext(String value) {
+            }
+        };
+
+        usecase.execute(observer, null);
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        usecase.execute(observer, null);
+        assertEquals(0, UseCaseResultCache.size());
+
+        BaseUseCase<Resource<String>> failing = new BaseUseCase<Resource<String>>(Schedulers.trampoline(), Schedulers.trampoline()) {
+            @Override
+            protected Observable<Resource<String>> buildUseCaseObservable(Bundle b) {
+                return Observable.just(Resource.<String>loading(null), Resource.<String>error("down", null));
+            }
+
+            @Override
+            protected long resultCacheTtlMillis() {
+                return 60000;
+            }
+        };
+        failing.execute(new BaseUsecaseObserver<Resource<String>>() {
+            @Override
+            public void onNext(Resource<String> value) {
+            }
+        }, null);
+        assertEquals(0, UseCaseResultCache.size());
+    }
+
+    private class FlakyUseCase extends BaseUseCase<String> {
+        int calls;
+
+        FlakyUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+            super(threadExecutor, postExecutionThread);
+        }
+
+        @Override
+        protected Observable<String> buildUseCaseObservable(Bundle b) {
+            calls++;
+            return Observable.error(new IOException("down"));
+        }
+
+        @Override
+        protected RetryPolicy getRetryPolicy() {
+            return retry().maxAttempts(2).build();
+        }
+
+        @Override
+        protected CircuitBreaker getCircuitBreaker() {
+            return CircuitBreaker.forKey("flaky", 2, 60000, scheduler);
+        }
+
+        @Override
+        protected Observable<String> onCircuitOpen(Bundle b, CircuitOpenException e) {
+            return Observable.just("cached");
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.BackpressureStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
+import io.reactivex.exceptions.MissingBackpressureException;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Values produced, batched and dropped while a slow observer consumes a large stream
+ */
+public class BaseFlowableUseCaseTest {
+
+    private static final int BATCH = 10;
+
+    private final AtomicInteger produced = new AtomicInteger();
+    private final AtomicInteger overflows = new AtomicInteger();
+
+    private Flowable<Integer> honouringRequests(int count) {
+        return Flowable.range(0, count).doOnNext(value -> produced.incrementAndGet());
+    }
+
+    private Flowable<Integer> ignoringRequests(int count) {
+        return Flowable.<Integer>create(emitter -> {
+            for (int i = 0; i < count && !emitter.isCancelled(); i++) {
+                produced.incrementAndGet();
+                emitter.onNext(i);
+            }
+            emitter.onComplete();
+        }, BackpressureStrategy.MISSING);
+    }
+
+    @Test
+    public void slowObserver_boundsTheValuesProduced() {
+        StreamUseCase usecase = new StreamUseCase(honouringRequests(10005), Schedulers.trampoline(), Schedulers.trampoline(), null);
+        ManualObserver observer = new ManualObserver();
+        usecase.execute(observer);
+
+        for (int consumed = 1; consumed <= 5; consumed++) {
+            observer.more(1);
+            assertEquals(consumed, observer.batches.size());
+            assertTrue(produced.get() <= (consumed + BaseFlowableUseCase.PREFETCH_BATCHES) * BATCH);
+        }
+
+        observer.more(Long.MAX_VALUE);
+        assertTrue(observer.completed);
+        assertNull(observer.error);
+        assertEquals(1001, observer.batches.size());
+        assertEquals(BATCH, observer.batches.get(0).size());
+        assertEquals(5, observer.batches.get(1000).size());
+        assertEquals(Integer.valueOf(10004), observer.batches.get(1000).get(4));
+    }
+
+    @Test
+    public void observerBusyOnAnotherThread_slowsDownTheProducer() throws InterruptedException {
+        CountDownLatch firstBatch = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<Throwable> errors = new ArrayList<>();
+        AtomicInteger received = new AtomicInteger();
+        StreamUseCase usecase = new StreamUseCase(honouringRequests(10000), Schedulers.io(), Schedulers.single(), null);
+
+        usecase.execute(new BaseFlowableUsecaseObserver<Integer>() {
+            @Override
+            protected void onBatch(List<Integer> batch) {
+                received.addAndGet(batch.size());
+                firstBatch.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                errors.add(e);
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+
+        assertTrue(firstBatch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertTrue(produced.get() <= (1 + BaseFlowableUseCase.PREFETCH_BATCHES) * BATCH);
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(new ArrayList<Throwable>(), errors);
+        assertEquals(10000, received.get());
+    }
+
+    @Test
+    public void sourceIgnoringRequests_withoutStrategy_failsTheExecution() {
+        StreamUseCase usecase = new StreamUseCase(ignoringRequests(1000), Schedulers.trampoline(), Schedulers.trampoline(), null);
+        ManualObserver observer = new ManualObserver();
+        usecase.execute(observer);
+
+        assertTrue(observer.error instanceof MissingBackpressureException);
+    }
+
+    @Test
+    public void sourceIgnoringRequests_withDropStrategy_keepsTheLatestValues() {
+        StreamUseCase usecase = new StreamUseCase(ignoringRequests(1000), Schedulers.trampoline(), Schedulers.trampoline(),
+                BackpressureOverflowStrategy.DROP_OLDEST);
+        ManualObserver observer = new ManualObserver();
+        usecase.execute(observer);
+        observer.more(Long.MAX_VALUE);
+
+        assertNull(observer.error);
+        assertTrue(observer.completed);
+        assertTrue(overflows.get() > 0);
+        int received = 0;
+        for (List<Integer> batch : observer.batches) {
+            received += batch.size();
+        }
+        assertTrue(received <= StreamUseCase.BUFFER + BaseFlowableUseCase.PREFETCH_BATCHES * BATCH);
+        List<Integer> last = observer.batches.get(observer.batches.size() - 1);
+        assertEquals(Integer.valueOf(999), last.get(last.size() - 1));
+    }
+
+    private final class StreamUseCase extends BaseFlowableUseCase<Integer> {
+        static final int BUFFER = 16;
+
+        private final Flowable<Integer> source;
+        private final BackpressureOverflowStrategy overflowStrategy;
+
+        StreamUseCase(Flowable<Integer> source, Scheduler threadExecutor, Scheduler postExecutionThread,
+                      BackpressureOverflowStrategy overflowStrategy) {
+            super(threadExecutor, postExecutionThread);
+            this.source = source;
+            this.overflowStrategy = overflowStrategy;
+        }
+
+        @Override
+        protected Flowable<Integer> buildUseCaseFlowable(Bundle b) {
+            return source;
+        }
+
+        @Override
+        protected int getBatchSize() {
+            return BATCH;
+        }
+
+        @Override
+        protected int getBufferSize() {
+            return BUFFER;
+        }
+
+        @Override
+        protected BackpressureOverflowStrategy getOverflowStrategy() {
+            return overflowStrategy;
+        }
+
+        @Override
+        protected void onOverflow() {
+            overflows.incrementAndGet();
+        }
+    }
+
+    /**
+     * Requests the batches only when the test asks for them
+     */
+    private static final class ManualObserver extends BaseFlowableUsecaseObserver<Integer> {
+        final List<List<Integer>> batches = new ArrayList<>();
+        Throwable error;
+        boolean completed;
+
+        void more(long n) {
+            request(n);
+        }
+
+        @Override
+        protected long getRequestSize() {
+            return 0;
+        }
+
+        @Override
+        protected void onBatch(List<Integer> batch) {
+            batches.add(batch);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error = e;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
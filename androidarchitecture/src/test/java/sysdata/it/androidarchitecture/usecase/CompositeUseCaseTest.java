@@ -0,0 +1,176 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import sysdata.it.androidarchitecture.repository.Resource;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Children of a composite use case running on a synchronous scheduler
+ */
+public class CompositeUseCaseTest {
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    private <R> BaseUseCase<R> childUseCase(Observable<R> source) {
+        return new BaseUseCase<R>(Schedulers.trampoline(), Schedulers.trampoline()) {
+            @Override
+            protected Observable<R> buildUseCaseObservable(Bundle b) {
+                return source
+                        .doOnSubscribe(d -> maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet())))
+                        .doOnTerminate(running::decrementAndGet);
+            }
+        };
+    }
+
+    @Test
+    public void children_runAtMostMaxConcurrencyAtATime() {
+        List<PublishSubject<String>> sources = new ArrayList<>();
+        List<CompositeUseCase.Child<?>> children = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            PublishSubject<String> source = PublishSubject.create();
+            sources.add(source);
+            children.add(CompositeUseCase.child("child" + i, childUseCase(source), null));
+        }
+        RecordingObserver observer = new RecordingObserver();
+        new TestComposite(children, 2).execute(observer, null);
+
+        assertEquals(2, running.get());
+        assertTrue(sources.get(0).hasObservers() && sources.get(1).hasObservers());
+        assertFalse(sources.get(2).hasObservers());
+
+        sources.get(0).onComplete();
+        assertEquals(2, running.get());
+        assertTrue(sources.get(2).hasObservers());
+
+        for (PublishSubject<String> source : sources) {
+            source.onComplete();
+        }
+        assertEquals(2, maxRunning.get());
+        assertEquals(Resource.Status.SUCCESS, observer.last().status);
+    }
+
+    @Test
+    public void values_emitThePartialResultsUntilEveryChildEnds() {
+        PublishSubject<String> slow = PublishSubject.create();
+        RecordingObserver observer = new RecordingObserver();
+        new TestComposite(Arrays.<CompositeUseCase.Child<?>>asList(
+                CompositeUseCase.child("fast", childUseCase(Observable.just("fast value")), null),
+                CompositeUseCase.child("slow", childUseCase(slow), null)), 2).execute(observer, null);
+
+        Resource<CompositeUseCase.Results> partial = observer.last();
+        assertEquals(Resource.Status.RUNNING, partial.status);
+        assertEquals("fast value", partial.data.get("fast"));
+        assertEquals(Resource.Status.SUCCESS, partial.data.getStatus("fast"));
+        assertEquals(Resource.Status.RUNNING, partial.data.getStatus("slow"));
+        assertNull(partial.data.get("slow"));
+
+        slow.onNext("slow value");
+        slow.onComplete();
+        Resource<CompositeUseCase.Results> complete = observer.last();
+        assertEquals(Resource.Status.SUCCESS, complete.status);
+        assertEquals("slow value", complete.data.get("slow"));
+        assertTrue(complete.data.isComplete());
+        assertTrue(observer.completed);
+    }
+
+    @Test
+    public void failedChildren_failTheResultsKeepingTheOtherValues() {
+        IOException error = new IOException("down");
+        RecordingObserver observer = new RecordingObserver();
+        new TestComposite(Arrays.<CompositeUseCase.Child<?>>asList(
+                CompositeUseCase.child("ok", childUseCase(Observable.just("value")), null),
+                CompositeUseCase.child("error", childUseCase(Observable.<String>error(error)), null),
+                CompositeUseCase.child("failed", childUseCase(Observable.just(Resource.<String>error("failed", null))), null)), 3)
+                .execute(observer, null);
+
+        Resource<CompositeUseCase.Results> last = observer.last();
+        assertEquals(Resource.Status.FAILED, last.status);
+        assertEquals(error, last.throwable);
+        assertEquals("value", last.data.get("ok"));
+        assertEquals(Resource.Status.SUCCESS, last.data.getStatus("ok"));
+        assertEquals(Resource.Status.FAILED, last.data.getStatus("error"));
+        assertEquals(Resource.Status.FAILED, last.data.getStatus("failed"));
+        assertEquals(Arrays.asList("error", "failed"), last.data.getFailedNames());
+        assertNull(observer.error);
+    }
+
+    @Test
+    public void duplicateNames_failTheExecution() {
+        RecordingObserver observer = new RecordingObserver();
+        new TestComposite(Arrays.<CompositeUseCase.Child<?>>asList(
+                CompositeUseCase.child("same", childUseCase(Observable.just("first")), null),
+                CompositeUseCase.child("same", childUseCase(Observable.just("second")), null)), 2).execute(observer, null);
+
+        assertTrue(observer.error instanceof IllegalArgumentException);
+        assertEquals(0, maxRunning.get());
+    }
+
+    private static final class TestComposite extends CompositeUseCase {
+        private final List<Child<?>> children;
+        private final int maxConcurrency;
+
+        TestComposite(List<Child<?>> children, int maxConcurrency) {
+            super(Schedulers.trampoline(), Schedulers.trampoline());
+            this.children = children;
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        @Override
+        protected List<Child<?>> declareChildren(Bundle b) {
+            return children;
+        }
+
+        @Override
+        protected int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+    }
+
+    private static final class RecordingObserver implements Observer<Resource<CompositeUseCase.Results>> {
+        final List<Resource<CompositeUseCase.Results>> values = new ArrayList<>();
+        Throwable error;
+        boolean completed;
+
+        Resource<CompositeUseCase.Results> last() {
+            return values.get(values.size() - 1);
+        }
+
+        @Override
+        public void onSubscribe(Disposable d) {
+        }
+
+        @Override
+        public void onNext(Resource<CompositeUseCase.Results> value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            error = e;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Executions subscribed with {@link ExecutionMode#SINGLE_HOP}
+ */
+public class ExecutionModeTest {
+
+    @Test
+    public void singleHop_disposeCancelsTheUpstream() throws Exception {
+        CountDownLatch subscribed = new CountDownLatch(1);
+        CountDownLatch disposed = new CountDownLatch(1);
+        BaseUseCase<Long> usecase = new BaseUseCase<Long>(Schedulers.io(), Schedulers.single()) {
+            @Override
+            protected Observable<Long> buildUseCaseObservable(Bundle b) {
+                return Observable.<Long>never()
+                        .doOnSubscribe(d -> subscribed.countDown())
+                        .doOnDispose(disposed::countDown);
+            }
+        };
+        usecase.setExecutionMode(ExecutionMode.SINGLE_HOP);
+
+        Disposable disposable = usecase.execute(new NoOpObserver<>(), null, ConcurrencyPolicy.CANCEL_PREVIOUS, 1);
+        assertTrue(subscribed.await(1, TimeUnit.SECONDS));
+        disposable.dispose();
+
+        assertTrue(disposable.isDisposed());
+        assertTrue(disposed.await(1, TimeUnit.SECONDS));
+    }
+
+    private static final class NoOpObserver<T> implements Observer<T> {
+        @Override
+        public void onSubscribe(Disposable d) {
+        }
+
+        @Override
+        public void onNext(T value) {
+        }
+
+        @Override
+        public void onError(Throwable e) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.observers.TestObserver;
+import io.reactivex.subjects.PublishSubject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Executions joining, ending and cancelling a shared flight
+ */
+public class SingleFlightTest {
+
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private final AtomicInteger disposals = new AtomicInteger();
+
+    @After
+    public void tearDown() {
+        assertEquals(0, SingleFlight.size());
+    }
+
+    private <T> Observable<T> share(Observable<T> upstream) {
+        return SingleFlight.share(SingleFlightTest.class, BundleKey.EMPTY, () -> upstream
+                .doOnSubscribe(d -> subscriptions.incrementAndGet())
+                .doOnDispose(disposals::incrementAndGet));
+    }
+
+    @Test
+    public void concurrentExecutions_joinTheFlightRunning() {
+        PublishSubject<Integer> upstream = PublishSubject.create();
+        Observable<Integer> flight = share(upstream);
+        TestObserver<Integer> first = flight.test();
+        upstream.onNext(1);
+
+        Observable<Integer> joined = share(upstream);
+        TestObserver<Integer> second = joined.test();
+        upstream.onNext(2);
+        upstream.onComplete();
+
+        assertSame(flight, joined);
+        assertEquals(1, subscriptions.get());
+        first.assertResult(1, 2);
+        second.assertResult(1, 2);
+    }
+
+    @Test
+    public void executionsFromManyThreads_subscribeTheUpstreamOnce() throws InterruptedException {
+        int threads = 8;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        List<TestObserver<Integer>> observers = new CopyOnWriteArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    start.await();
+                    observers.add(share(Observable.<Integer>never()).test());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertEquals(threads, observers.size());
+        assertEquals(1, subscriptions.get());
+        assertEquals(1, SingleFlight.size());
+        for (TestObserver<Integer> observer : observers) {
+            observer.dispose();
+        }
+        assertEquals(1, disposals.get());
+    }
+
+    @Test
+    public void executionAfterTheEnd_startsANewFlight() {
+        AtomicInteger calls = new AtomicInteger();
+        Observable<Integer> upstream = Observable.defer(() -> Observable.just(calls.incrementAndGet()));
+
+        Observable<Integer> first = share(upstream);
+        first.test().assertResult(1);
+        assertEquals(0, SingleFlight.size());
+
+        Observable<Integer> second = share(upstream);
+        assertNotSame(first, second);
+        second.test().assertResult(2);
+        // an execution holding the ended flight subscribes again instead of replaying it
+        first.test().assertResult(3);
+        assertEquals(3, subscriptions.get());
+    }
+
+    @Test
+    public void flightCancelledByAllItsExecutions_disposesTheUpstream() {
+        Observable<Integer> flight = share(Observable.<Integer>never());
+        TestObserver<Integer> first = flight.test();
+        TestObserver<Integer> second = share(Observable.<Integer>never()).test();
+        assertEquals(1, SingleFlight.size());
+
+        first.dispose();
+        assertEquals(0, disposals.get());
+        assertEquals(1, SingleFlight.size());
+
+        second.dispose();
+        assertEquals(1, disposals.get());
+        assertEquals(0, SingleFlight.size());
+
+        TestObserver<Integer> next = share(Observable.<Integer>never()).test();
+        assertEquals(2, subscriptions.get());
+        next.dispose();
+    }
+}
@@ -0,0 +1,91 @@
+package sysdata.it.androidarchitecture.usecase;
+
+import android.os.Bundle;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Shareable use cases pooled by class and schedulers
+ */
+public class UseCaseFactoriesTest {
+
+    private final SchedulerProvider io = SchedulerProviders.of(Schedulers.io(), Schedulers.single());
+    private final SchedulerProvider trampoline = SchedulerProviders.test(Schedulers.trampoline());
+
+    @After
+    public void tearDown() {
+        UseCaseFactories.releaseShared(SharedUseCase.class);
+    }
+
+    @Test
+    public void obtain_sharesTheInstanceBetweenProvidersWithTheSameSchedulers() {
+        BaseUseCase first = UseCaseFactories.obtain(SharedUseCase.class, io);
+        BaseUseCase second = UseCaseFactories.obtain(SharedUseCase.class, SchedulerProviders.of(Schedulers.io(), Schedulers.single()));
+
+        assertSame(first, second);
+    }
+
+    @Test
+    public void obtain_keepsTheSchedulersOfEachProvider() {
+        BaseUseCase onIo = UseCaseFactories.obtain(SharedUseCase.class, io);
+        BaseUseCase onTrampoline = UseCaseFactories.obtain(SharedUseCase.class, trampoline);
+
+        assertNotSame(onIo, onTrampoline);
+        assertSame(Schedulers.io(), onIo.getThreadExecutor());
+        assertSame(Schedulers.single(), onIo.getPostExecutionThread());
+        assertSame(Schedulers.trampoline(), onTrampoline.getThreadExecutor());
+        assertSame(Schedulers.trampoline(), onTrampoline.getPostExecutionThread());
+    }
+
+    @Test
+    public void releaseShared_dropsTheInstancesOfEverySchedulers() {
+        BaseUseCase onIo = UseCaseFactories.obtain(SharedUseCase.class, io);
+        BaseUseCase onTrampoline = UseCaseFactories.obtain(SharedUseCase.class, trampoline);
+        UseCaseFactories.releaseShared(SharedUseCase.class);
+
+        assertNotSame(onIo, UseCaseFactories.obtain(SharedUseCase.class, io));
+        assertNotSame(onTrampoline, UseCaseFactories.obtain(SharedUseCase.class, trampoline));
+    }
+
+    @Test
+    public void obtain_createsANewInstanceOfAUseCaseNotShareable() {
+        assertNotSame(UseCaseFactories.obtain(PlainUseCase.class, io), UseCaseFactories.obtain(PlainUseCase.class, io));
+    }
+
+    public static class SharedUseCase extends BaseUseCase<String> {
+
+        public SharedUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+            super(threadExecutor, postExecutionThread);
+        }
+
+        @Override
+        public boolean isShareable() {
+            return true;
+        }
+
+        @Override
+        protected Observable<String> buildUseCaseObservable(Bundle b) {
+            return Observable.empty();
+        }
+    }
+
+    public static class PlainUseCase extends BaseUseCase<String> {
+
+        public PlainUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+            super(threadExecutor, postExecutionThread);
+        }
+
+        @Override
+        protected Observable<String> buildUseCaseObservable(Bundle b) {
+            return Observable.empty();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package sysdata.it.androidarchitecture.viewmodel;
+
+import android.os.Bundle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.TestScheduler;
+import sysdata.it.androidarchitecture.usecase.BaseUseCase;
+import sysdata.it.androidarchitecture.usecase.BaseUsecaseObserver;
+import sysdata.it.androidarchitecture.usecase.ConcurrencyPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Debounce, throttle and distinct windows of the actions, measured on a virtual time scheduler
+ */
+public class ActionGateTest {
+
+    private TestScheduler scheduler;
+    private List<Object[]> executions;
+
+    @Before
+    public void setUp() {
+        scheduler = new TestScheduler();
+        executions = new ArrayList<>();
+    }
+
+    private ActionGate gate(long debounceMillis, long throttleMillis, boolean distinct) {
+        ActionConfig config = new ActionConfig(ConcurrencyPolicy.CANCEL_PREVIOUS, 1, debounceMillis, throttleMillis, distinct);
+        return new ActionGate(config, scheduler, (parameters, deadline) -> executions.add(parameters));
+    }
+
+    @Test
+    public void debounce_executesOnlyTheLastRequestOfABurst() {
+        ActionGate gate = gate(300, 0, false);
+
+        gate.submit(new Object[]{"a"});
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        gate.submit(new Object[]{"ab"});
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        gate.submit(new Object[]{"abc"});
+        scheduler.advanceTimeBy(299, TimeUnit.MILLISECONDS);
+        assertEquals(0, executions.size());
+
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        assertEquals(1, executions.size());
+        assertEquals("abc", executions.get(0)[0]);
+    }
+
+    @Test
+    public void throttle_executesTheFirstRequestOfEachWindow() {
+        ActionGate gate = gate(0, 1000, false);
+
+        gate.submit(new Object[]{1});
+        gate.submit(new Object[]{2});
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        gate.submit(new Object[]{3});
+        scheduler.advanceTimeBy(500, TimeUnit.MILLISECONDS);
+        gate.submit(new Object[]{4});
+
+        assertEquals(2, executions.size());
+        assertEquals(1, executions.get(0)[0]);
+        assertEquals(4, executions.get(1)[0]);
+    }
+
+    @Test
+    public void distinct_ignoresRequestsWithSameParameters() {
+        ActionGate gate = gate(0, 0, true);
+
+        gate.submit(new Object[]{"query", 1});
+        gate.submit(new Object[]{"query", 1});
+        gate.submit(new Object[]{"query", 2});
+        gate.submit(new Object[]{"query", 1});
+
+        assertEquals(3, executions.size());
+    }
+
+    @Test
+    public void requestWithoutParameters_isExecutedWithNullParameters() {
+        ActionGate gate = gate(10, 0, false);
+
+        gate.submit(null);
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, executions.size());
+        assertNull(executions.get(0));
+    }
+
+    @Test
+    public void dispose_dropsPendingRequests() {
+        ActionGate gate = gate(100, 0, false);
+
+        gate.submit(new Object[]{"a"});
+        gate.dispose();
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+
+        assertEquals(0, executions.size());
+    }
+
+    @Test
+    public void viewModel_collapsesBurstsBeforeExecutingTheUseCase() {
+        SearchViewModel viewModel = new SearchViewModel(scheduler);
+
+        for (String query : Arrays.asList("a", "an", "and", "andr")) {
+            viewModel.execute(SearchViewModel.SEARCH, query);
+            scheduler.advanceTimeBy(50, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(0, viewModel.preparedQueries.size());
+
+        scheduler.advanceTimeBy(250, TimeUnit.MILLISECONDS);
+        assertEquals(Arrays.asList("andr"), viewModel.preparedQueries);
+
+        viewModel.onCleared();
+    }
+
+    public static class SearchUseCase extends BaseUseCase<String> {
+
+        public SearchUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+            super(threadExecutor, postExecutionThread);
+        }
+
+        @Override
+        protected Observable<String> buildUseCaseObservable(Bundle b) {
+            return Observable.empty();
+        }
+    }
+
+    static class SearchViewModel extends BaseArchitectureViewModel {
+        static final String SEARCH = "search";
+
+        private final Scheduler actionScheduler;
+        final List<Object> preparedQueries = new ArrayList<>();
+
+        @UCAction(actions = SEARCH, debounceMillis = 300)
+        final BaseUsecaseObserver<String> searchObserver = new BaseUsecaseObserver<String>() {
+            {
+                setObservedUsecaseClass(SearchUseCase.class);
+            }
+
+            @Override
+            public void onNext(String s) {
+            }
+        };
+
+        SearchViewModel(Scheduler actionScheduler) {
+            this.actionScheduler = actionScheduler;
+        }
+
+        @Override
+        protected Scheduler getActionScheduler() {
+            return actionScheduler;
+        }
+
+        @Override
+        protected Bundle onPreparingBundle(String actionName, Object[] parameters) {
+            preparedQueries.add(parameters[0]);
+            return null;
+        }
+
+        @Override
+        protected void onReleaseObservers() {
+            releaseObservers(searchObserver);
+        }
+    }
+}
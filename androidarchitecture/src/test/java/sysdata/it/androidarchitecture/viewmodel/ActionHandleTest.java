@@ -0,0 +1,103 @@
+package sysdata.it.androidarchitecture.viewmodel;
+
+import android.os.Bundle;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import sysdata.it.androidarchitecture.usecase.BaseUseCase;
+import sysdata.it.androidarchitecture.usecase.BaseUsecaseObserver;
+import sysdata.it.androidarchitecture.usecase.SchedulerProvider;
+import sysdata.it.androidarchitecture.usecase.SchedulerProviders;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Executions of a bound action compared with the ones of the view model
+ */
+public class ActionHandleTest {
+
+    @Test
+    public void handle_preparesTheBundleWithTheParametersOfExecute() {
+        RecordingViewModel viewModel = new RecordingViewModel();
+        ActionHandle handle = viewModel.bind(RecordingViewModel.LOAD);
+        Object[] array = {"first", "second"};
+
+        viewModel.execute(RecordingViewModel.LOAD);
+        handle.execute();
+        viewModel.execute(RecordingViewModel.LOAD, (Object[]) null);
+        handle.execute((Object[]) null);
+        viewModel.execute(RecordingViewModel.LOAD, "single");
+        handle.execute("single");
+        viewModel.execute(RecordingViewModel.LOAD, "first", 2);
+        handle.execute("first", 2);
+        viewModel.execute(RecordingViewModel.LOAD, array);
+        handle.execute(array);
+        viewModel.execute(RecordingViewModel.LOAD, (Object) null);
+        handle.execute((Object) null);
+
+        List<Object[]> prepared = viewModel.prepared;
+        assertEquals(12, prepared.size());
+        for (int i = 0; i < prepared.size(); i += 2) {
+            assertArrayEquals(prepared.get(i), prepared.get(i + 1));
+        }
+        assertNull(prepared.get(1));
+        assertNull(prepared.get(3));
+        assertArrayEquals(array, prepared.get(9));
+        assertArrayEquals(new Object[]{null}, prepared.get(11));
+
+        viewModel.onCleared();
+    }
+
+    public static class LoadUseCase extends BaseUseCase<String> {
+
+        public LoadUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+            super(threadExecutor, postExecutionThread);
+        }
+
+        @Override
+        protected Observable<String> buildUseCaseObservable(Bundle b) {
+            return Observable.empty();
+        }
+    }
+
+    static class RecordingViewModel extends BaseArchitectureViewModel {
+        static final String LOAD = "load";
+
+        final List<Object[]> prepared = new ArrayList<>();
+
+        @UCAction(actions = LOAD)
+        final BaseUsecaseObserver<String> loadObserver = new BaseUsecaseObserver<String>() {
+            {
+                setObservedUsecaseClass(LoadUseCase.class);
+            }
+
+            @Override
+            public void onNext(String s) {
+            }
+        };
+
+        @Override
+        protected SchedulerProvider getSchedulerProvider() {
+            return SchedulerProviders.test(Schedulers.trampoline());
+        }
+
+        @Override
+        protected Bundle onPreparingBundle(String actionName, Object[] parameters) {
+            prepared.add(parameters);
+            return null;
+        }
+
+        @Override
+        protected void onReleaseObservers() {
+            releaseObservers(loadObserver);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package sysdata.it.androidarchitecture.viewmodel;
+
+import android.os.Bundle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.Observable;
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import sysdata.it.androidarchitecture.usecase.BaseUseCase;
+import sysdata.it.androidarchitecture.usecase.BaseUsecaseObserver;
+import sysdata.it.androidarchitecture.usecase.ConcurrencyPolicy;
+import sysdata.it.androidarchitecture.usecase.SchedulerProvider;
+import sysdata.it.androidarchitecture.usecase.SchedulerProviders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Executions of the same view model started from many threads at once
+ */
+public class ConcurrentExecuteTest {
+
+    private static final int THREADS = 8;
+    private static final int EXECUTIONS = 500;
+
+    private static final AtomicInteger created = new AtomicInteger();
+    private static final AtomicInteger running = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        created.set(0);
+        running.set(0);
+    }
+
+    /**
+     * Runs the task on all the threads released together, and returns the errors thrown
+     */
+    private List<Throwable> race(final Task task) throws InterruptedException {
+        final CyclicBarrier start = new CyclicBarrier(THREADS);
+        final CountDownLatch done = new CountDownLatch(THREADS);
+        final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    task.run(thread);
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        return new ArrayList<>(errors);
+    }
+
+    @Test
+    public void execute_fromManyThreads_reachesEveryExecutionWithOneUseCasePerObserver() throws InterruptedException {
+        StressViewModel viewModel = new StressViewModel();
+
+        List<Throwable> errors = race(thread -> {
+            for (int i = 0; i < EXECUTIONS; i++) {
+                viewModel.execute(i % 2 == 0 ? StressViewModel.FIRST : StressViewModel.SECOND, i);
+            }
+        });
+
+        assertEquals(new ArrayList<Throwable>(), errors);
+        assertEquals(THREADS * EXECUTIONS, viewModel.prepared.get());
+        assertEquals(THREADS * EXECUTIONS, viewModel.completed.get());
+        // threads racing on the first execution may create instances discarded before use
+        assertTrue(created.get() >= 2);
+        assertEquals(2, viewModel.singleInstanceUsecaseMap.size());
+        assertEquals(2, new HashSet<>(viewModel.singleInstanceUsecaseMap.values()).size());
+        viewModel.onCleared();
+    }
+
+    @Test
+    public void cancelPrevious_fromManyThreads_leavesOnlyTheLastExecutionRunning() throws InterruptedException {
+        StressViewModel viewModel = new StressViewModel();
+
+        List<Throwable> errors = race(thread -> {
+            for (int i = 0; i < EXECUTIONS; i++) {
+                viewModel.execute(StressViewModel.ENDLESS);
+            }
+        });
+
+        assertEquals(new ArrayList<Throwable>(), errors);
+        assertEquals(1, running.get());
+
+        viewModel.onCleared();
+        assertEquals(0, running.get());
+    }
+
+    @Test
+    public void gatedAction_fromManyThreads_losesNoRequest() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            StressViewModel viewModel = new StressViewModel();
+
+            List<Throwable> errors = race(thread -> viewModel.execute(StressViewModel.DISTINCT, thread));
+
+            assertEquals(new ArrayList<Throwable>(), errors);
+            assertEquals(THREADS, viewModel.prepared.get());
+            viewModel.onCleared();
+        }
+    }
+
+    private interface Task {
+        void run(int thread) throws Exception;
+    }
+
+    public static class CountingUseCase extends BaseUseCase<Integer> {
+
+        public CountingUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+            super(threadExecutor, postExecutionThread);
+            created.incrementAndGet();
+        }
+
+        @Override
+        protected Observable<Integer> buildUseCaseObservable(Bundle b) {
+            return Observable.just(1);
+        }
+    }
+
+    public static class EndlessUseCase extends BaseUseCase<Integer> {
+
+        public EndlessUseCase(Scheduler threadExecutor, Scheduler postExecutionThread) {
+            super(threadExecutor, postExecutionThread);
+        }
+
+        @Override
+        protected Observable<Integer> buildUseCaseObservable(Bundle b) {
+            return Observable.<Integer>never()
+                    .doOnSubscribe(d -> running.incrementAndGet())
+                    .doOnDispose(running::decrementAndGet);
+        }
+    }
+
+    public static class CountingUseCase2 extends CountingUseCase {
+
+        public CountingUseCase2(Scheduler threadExecutor, Scheduler postExecutionThread) {
+            super(threadExecutor, postExecutionThread);
+        }
+    }
+
+    static class StressViewModel extends BaseArchitectureViewModel {
+        static final String FIRST = "first";
+        static final String SECOND = "second";
+        static final String ENDLESS = "endless";
+        static final String DISTINCT = "distinct";
+
+        final AtomicInteger prepared = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+
+        @UCAction(actions = FIRST, policy = ConcurrencyPolicy.MERGE, maxConcurrency = THREADS)
+        final BaseUsecaseObserver<Integer> firstObserver = counting(CountingUseCase.class);
+
+        @UCAction(actions = SECOND, policy = ConcurrencyPolicy.MERGE, maxConcurrency = THREADS)
+        final BaseUsecaseObserver<Integer> secondObserver = counting(CountingUseCase2.class);
+
+        @UCAction(actions = DISTINCT, policy = ConcurrencyPolicy.MERGE, maxConcurrency = THREADS, distinctUntilChanged = true)
+        final BaseUsecaseObserver<Integer> distinctObserver = counting(CountingUseCase.class);
+
+        @UCAction(actions = ENDLESS)
+        final BaseUsecaseObserver<Integer> endlessObserver = counting(EndlessUseCase.class);
+
+        private BaseUsecaseObserver<Integer> counting(Class<? extends BaseUseCase> usecaseClass) {
+            BaseUsecaseObserver<Integer> observer = new BaseUsecaseObserver<Integer>() {
+                @Override
+                public void onNext(Integer value) {
+                }
+
+                @Override
+                public void onComplete() {
+                    completed.incrementAndGet();
+                }
+            };
+            observer.setObservedUsecaseClass(usecaseClass);
+            return observer;
+        }
+
+        @Override
+        protected SchedulerProvider getSchedulerProvider() {
+            return SchedulerProviders.test(Schedulers.trampoline());
+        }
+
+        @Override
+        protected Scheduler getActionScheduler() {
+            return Schedulers.trampoline();
+        }
+
+        @Override
+        protected Bundle onPreparingBundle(String actionName, Object[] parameters) {
+            prepared.incrementAndGet();
+            return null;
+        }
+
+        @Override
+        protected void onReleaseObservers() {
+            releaseObservers(firstObserver, secondObserver, endlessObserver, distinctObserver);
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package sysdata.it.androidarchitectureprocessor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a {@code <ViewModel>_ActionDispatcher} for each view model declaring {@code @UCAction},
+ * {@code @UCActionsSet} or {@code @UCPrepareBundle}, reading fields and calling methods directly.
+ *
+ * Private members cannot be read by the generated class: view models with private annotated members
+ * are skipped and keep using reflection at runtime.
+ */
+public class ActionDispatcherProcessor extends AbstractProcessor {
+
+    private static final String UC_ACTION = "sysdata.it.androidarchitecture.viewmodel.UCAction";
+    private static final String UC_ACTIONS_SET = "sysdata.it.androidarchitecture.viewmodel.UCActionsSet";
+    private static final String UC_PREPARE_BUNDLE = "sysdata.it.androidarchitecture.viewmodel.UCPrepareBundle";
+    private static final String SUFFIX = "_ActionDispatcher";
+    private static final String DEFAULT_POLICY = "CANCEL_PREVIOUS";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<>(Arrays.asList(UC_ACTION, UC_ACTIONS_SET, UC_PREPARE_BUNDLE));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> viewModels = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                viewModels.add((TypeElement) element.getEnclosingElement());
+            }
+        }
+
+        for (TypeElement viewModel : viewModels) {
+            ViewModelEntry entry = readViewModel(viewModel);
+            if(entry != null) {
+                writeDispatcher(entry);
+            }
+        }
+        return true;
+    }
+
+    private ViewModelEntry readViewModel(TypeElement viewModel) {
+        if(viewModel.getModifiers().contains(Modifier.PRIVATE)) {
+            note(viewModel, "it is private");
+            return null;
+        }
+
+        ViewModelEntry entry = new ViewModelEntry(viewModel);
+
+        // same order of the runtime scan: fields first, then methods overriding actions declared twice
+        List<Element> members = new ArrayList<>();
+        for (Element element : viewModel.getEnclosedElements()) {
+            if(element.getKind() == ElementKind.FIELD) members.add(element);
+        }
+        for (Element element : viewModel.getEnclosedElements()) {
+            if(element.getKind() == ElementKind.METHOD) members.add(element);
+        }
+
+        for (Element member : members) {
+            for (AnnotationMirror mirror : member.getAnnotationMirrors()) {
+                String annotationName = mirror.getAnnotationType().toString();
+                boolean isObserver = UC_ACTION.equals(annotationName) || UC_ACTIONS_SET.equals(annotationName);
+                boolean isPreparer = UC_PREPARE_BUNDLE.equals(annotationName) && member.getKind() == ElementKind.METHOD;
+                if(!isObserver && !isPreparer) continue;
+
+                if(member.getModifiers().contains(Modifier.PRIVATE)) {
+                    note(viewModel, member.getSimpleName() + " is private");
+                    return null;
+                }
+
+                if(UC_ACTION.equals(annotationName)) {
+                    putActions(entry, mirror, member);
+                } else if(UC_ACTIONS_SET.equals(annotationName)) {
+                    for (AnnotationValue action : readList(mirror, "value")) {
+                        putActions(entry, (AnnotationMirror) action.getValue(), member);
+                    }
+                } else {
+                    String actionName = (String) readValue(mirror, "actionName");
+                    entry.preparers.put(actionName, preparerCall((ExecutableElement) member));
+                    entry.preparerParameters.put(actionName, ((ExecutableElement) member).getParameters().size());
+                }
+            }
+        }
+        return entry;
+    }
+
+    private void putActions(ViewModelEntry entry, AnnotationMirror mirror, Element member) {
+        String config = configField(entry, mirror);
+        for (String action : readActions(mirror)) {
+            entry.observers.put(action, observerAccess(member));
+            if(config != null) {
+                entry.configs.put(action, config);
+            } else {
+                entry.configs.remove(action);
+            }
+        }
+    }
+
+    /**
+     * @return the name of the constant holding the options of the action, null for the default ones
+     */
+    private String configField(ViewModelEntry entry, AnnotationMirror mirror) {
+        Object policy = readValue(mirror, "policy");
+        Object maxConcurrency = readValue(mirror, "maxConcurrency");
+        Object debounceMillis = readValue(mirror, "debounceMillis");
+        Object throttleMillis = readValue(mirror, "throttleMillis");
+        Object distinctUntilChanged = readValue(mirror, "distinctUntilChanged");
+
+        String policyName = policy != null ? ((VariableElement) policy).getSimpleName().toString() : DEFAULT_POLICY;
+        long debounce = debounceMillis != null ? ((Number) debounceMillis).longValue() : 0;
+        long throttle = throttleMillis != null ? ((Number) throttleMillis).longValue() : 0;
+        boolean distinct = Boolean.TRUE.equals(distinctUntilChanged);
+        if(DEFAULT_POLICY.equals(policyName) && debounce <= 0 && throttle <= 0 && !distinct) {
+            return null;
+        }
+
+        String constructor = "new ActionConfig(ConcurrencyPolicy." + policyName + ", "
+                + (maxConcurrency != null ? maxConcurrency : "ActionConfig.DEFAULT_MAX_CONCURRENCY") + ", "
+                + debounce + "L, " + throttle + "L, " + distinct + ")";
+        String field = entry.configConstants.get(constructor);
+        if(field == null) {
+            field = "CONFIG_" + entry.configConstants.size();
+            entry.configConstants.put(constructor, field);
+        }
+        return field;
+    }
+
+    private void note(TypeElement viewModel, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "Action dispatcher not generated for "
+                + viewModel.getQualifiedName() + " because " + reason + ", reflection will be used");
+    }
+
+    private List<String> readActions(AnnotationMirror mirror) {
+        List<String> actions = new ArrayList<>();
+        for (AnnotationValue value : readList(mirror, "actions")) {
+            actions.add((String) value.getValue());
+        }
+        return actions;
+    }
+
+    private List<AnnotationValue> readList(AnnotationMirror mirror, String name) {
+        Object value = readValue(mirror, name);
+        List<AnnotationValue> returnValue = new ArrayList<>();
+        if(value instanceof List) {
+            for (Object item : (List<?>) value) {
+                returnValue.add((AnnotationValue) item);
+            }
+        }
+        return returnValue;
+    }
+
+    private Object readValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet()) {
+            if(name.equals(value.getKey().getSimpleName().toString())) {
+                return value.getValue().getValue();
+            }
+        }
+        return null;
+    }
+
+    private String observerAccess(Element member) {
+        if(member.getKind() == ElementKind.FIELD) {
+            return "(BaseUsecaseObserver) viewModel." + member.getSimpleName();
+        }
+        return "(BaseUsecaseObserver) viewModel." + member.getSimpleName() + "()";
+    }
+
+    private String preparerCall(ExecutableElement method) {
+        StringBuilder call = new StringBuilder("(Bundle) viewModel.").append(method.getSimpleName()).append('(');
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if(i > 0) call.append(", ");
+            call.append('(').append(castType(parameters.get(i).asType())).append(") parameters[").append(i).append(']');
+        }
+        return call.append(')').toString();
+    }
+
+    private String castType(TypeMirror type) {
+        if(type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        if(type.getKind() == TypeKind.TYPEVAR || type.getKind() == TypeKind.DECLARED || type.getKind() == TypeKind.ARRAY) {
+            return processingEnv.getTypeUtils().erasure(type).toString();
+        }
+        return "Object";
+    }
+
+    private void writeDispatcher(ViewModelEntry entry) {
+        TypeElement viewModel = entry.viewModel;
+        String packageName = processingEnv.getElementUtils().getPackageOf(viewModel).getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(viewModel).toString();
+        String localName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        String simpleName = localName.replace('$', '_') + SUFFIX;
+        String viewModelType = processingEnv.getTypeUtils().erasure(viewModel.asType()).toString();
+
+        StringBuilder source = new StringBuilder();
+        if(!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import android.os.Bundle;\n\n")
+                .append("import sysdata.it.androidarchitecture.usecase.BaseUsecaseObserver;\n")
+                .append("import sysdata.it.androidarchitecture.usecase.ConcurrencyPolicy;\n")
+                .append("import sysdata.it.androidarchitecture.viewmodel.ActionConfig;\n")
+                .append("import sysdata.it.androidarchitecture.viewmodel.ActionDispatcher;\n\n")
+                .append("/**\n * Generated by ").append(getClass().getSimpleName()).append(", do not edit.\n */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(simpleName).append(" implements ActionDispatcher<").append(viewModelType).append("> {\n\n");
+        for (Map.Entry<String, String> constant : entry.configConstants.entrySet()) {
+            source.append("    private static final ActionConfig ").append(constant.getValue()).append(" = ").append(constant.getKey()).append(";\n");
+        }
+        if(!entry.configConstants.isEmpty()) {
+            source.append('\n');
+        }
+        source.append("    @Override\n")
+                .append("    public BaseUsecaseObserver getObserver(").append(viewModelType).append(" viewModel, String actionName) {\n")
+                .append("        if (actionName == null) return null;\n\n")
+                .append("        switch (actionName) {\n");
+        for (Map.Entry<String, String> observer : entry.observers.entrySet()) {
+            source.append("            case ").append(ProviderRegistryProcessor.literal(observer.getKey())).append(": return ")
+                    .append(observer.getValue()).append(";\n");
+        }
+        source.append("        }\n")
+                .append("        return null;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public ActionConfig getConfig(String actionName) {\n")
+                .append("        if (actionName == null) return ActionConfig.DEFAULT;\n\n")
+                .append("        switch (actionName) {\n");
+        for (Map.Entry<String, String> config : entry.configs.entrySet()) {
+            source.append("            case ").append(ProviderRegistryProcessor.literal(config.getKey())).append(": return ")
+                    .append(config.getValue()).append(";\n");
+        }
+        source.append("        }\n")
+                .append("        return ActionConfig.DEFAULT;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public boolean hasBundlePreparer(String actionName) {\n")
+                .append("        if (actionName == null) return false;\n\n")
+                .append("        switch (actionName) {\n");
+        for (String actionName : entry.preparers.keySet()) {
+            source.append("            case ").append(ProviderRegistryProcessor.literal(actionName)).append(":\n");
+        }
+        if(!entry.preparers.isEmpty()) {
+            source.append("                return true;\n");
+        }
+        source.append("        }\n")
+                .append("        return false;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public Bundle prepareBundle(").append(viewModelType).append(" viewModel, String actionName, Object[] parameters) {\n")
+                .append("        if (actionName == null) return null;\n\n")
+                .append("        switch (actionName) {\n");
+        for (Map.Entry<String, String> preparer : entry.preparers.entrySet()) {
+            int count = entry.preparerParameters.get(preparer.getKey());
+            source.append("            case ").append(ProviderRegistryProcessor.literal(preparer.getKey())).append(":\n");
+            if(count > 0) {
+                source.append("                checkParameters(parameters, ").append(count).append(");\n");
+            }
+            source.append("                return ").append(preparer.getValue()).append(";\n");
+        }
+        source.append("        }\n")
+                .append("        return null;\n")
+                .append("    }\n\n")
+                .append("    private static void checkParameters(Object[] parameters, int expected) {\n")
+                .append("        int count = parameters != null ? parameters.length : 0;\n")
+                .append("        if (count != expected) {\n")
+                .append("            throw new IllegalArgumentException(\"Expected \" + expected + \" parameters but were \" + count);\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, viewModel);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + qualifiedName + ": " + e.getMessage(), viewModel);
+        }
+    }
+
+    /**
+     * Actions read from a single view model
+     */
+    private static final class ViewModelEntry {
+        final TypeElement viewModel;
+        final Map<String, String> observers = new LinkedHashMap<>();
+        final Map<String, String> preparers = new LinkedHashMap<>();
+        final Map<String, Integer> preparerParameters = new LinkedHashMap<>();
+        final Map<String, String> configs = new LinkedHashMap<>();
+        final Map<String, String> configConstants = new LinkedHashMap<>();
+
+        ViewModelEntry(TypeElement viewModel) {
+            this.viewModel = viewModel;
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package sysdata.it.androidarchitectureprocessor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * Generates a {@code ProviderRegistry} with a switch-based lookup from the classes annotated with
+ * {@code @ClassProvider}.
+ *
+ * The generated class is {@code <package of the first provider>.GeneratedProviderRegistry}, the name
+ * can be changed with the processor option {@value #OPTION_REGISTRY_CLASS}.
+ */
+public class ProviderRegistryProcessor extends AbstractProcessor {
+
+    static final String OPTION_REGISTRY_CLASS = "androidarchitecture.registryClass";
+
+    private static final String CLASS_PROVIDER = "sysdata.it.androidarchitecture.ClassProvider";
+    private static final String BASE_CLASS_PROVIDER = "sysdata.it.androidarchitecture.BaseClassProvider";
+    private static final String PROVIDER_SCOPE = "sysdata.it.androidarchitecture.ProviderScope";
+    private static final String DEFAULT_GROUP = "default";
+    private static final String DEFAULT_SCOPE = "NONE";
+    private static final String DEFAULT_REGISTRY_NAME = "GeneratedProviderRegistry";
+
+    private final List<ProviderEntry> entries = new ArrayList<>();
+    private boolean generated;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(CLASS_PROVIDER);
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_REGISTRY_CLASS);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotationType = processingEnv.getElementUtils().getTypeElement(CLASS_PROVIDER);
+        if(annotationType != null) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotationType)) {
+                ProviderEntry entry = readEntry(element);
+                if(entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+
+        if(roundEnv.processingOver() && !generated && !entries.isEmpty()) {
+            generated = true;
+            writeRegistry();
+        }
+        return true;
+    }
+
+    private ProviderEntry readEntry(Element element) {
+        Messager messager = processingEnv.getMessager();
+        if(element.getKind() != ElementKind.CLASS) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@ClassProvider can be used only on classes", element);
+            return null;
+        }
+
+        TypeElement typeElement = (TypeElement) element;
+        Set<Modifier> modifiers = typeElement.getModifiers();
+        if(!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@ClassProvider class must be public and not abstract", element);
+            return null;
+        }
+        if(typeElement.getNestingKind().isNested() && !modifiers.contains(Modifier.STATIC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@ClassProvider nested class must be static", element);
+            return null;
+        }
+
+        TypeMirror providerType = processingEnv.getElementUtils().getTypeElement(BASE_CLASS_PROVIDER).asType();
+        if(!processingEnv.getTypeUtils().isAssignable(typeElement.asType(), providerType)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@ClassProvider class must implement " + BASE_CLASS_PROVIDER, element);
+            return null;
+        }
+
+        if(!hasPublicEmptyConstructor(typeElement)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@ClassProvider class must have a public no-args constructor", element);
+            return null;
+        }
+
+        ProviderEntry entry = new ProviderEntry(typeElement.getQualifiedName().toString());
+        entry.packageName = processingEnv.getElementUtils().getPackageOf(typeElement).getQualifiedName().toString();
+        for (AnnotationMirror mirror : typeElement.getAnnotationMirrors()) {
+            if(!CLASS_PROVIDER.equals(mirror.getAnnotationType().toString())) continue;
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : mirror.getElementValues().entrySet()) {
+                String name = value.getKey().getSimpleName().toString();
+                Object content = value.getValue().getValue();
+                if("key".equals(name)) {
+                    entry.key = (String) content;
+                } else if("priority".equals(name)) {
+                    entry.priority = (Integer) content;
+                } else if("group".equals(name)) {
+                    entry.group = (String) content;
+                } else if("scope".equals(name)) {
+                    entry.scope = ((VariableElement) content).getSimpleName().toString();
+                }
+            }
+        }
+
+        if(entry.key == null || entry.key.isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@ClassProvider key cannot be empty", element);
+            return null;
+        }
+        if(entry.group == null || entry.group.isEmpty()) {
+            entry.group = DEFAULT_GROUP;
+        }
+        return entry;
+    }
+
+    private boolean hasPublicEmptyConstructor(TypeElement typeElement) {
+        for (Element enclosed : typeElement.getEnclosedElements()) {
+            if(enclosed.getKind() == ElementKind.CONSTRUCTOR) {
+                ExecutableElement constructor = (ExecutableElement) enclosed;
+                if(constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Keeps only the best entry for each (key, group) couple, sorted to generate a stable source
+     */
+    private Map<String, Map<String, ProviderEntry>> resolveEntries() {
+        Map<String, Map<String, ProviderEntry>> resolved = new TreeMap<>();
+        for (ProviderEntry entry : entries) {
+            Map<String, ProviderEntry> groups = resolved.get(entry.key);
+            if(groups == null) {
+                groups = new TreeMap<>();
+                resolved.put(entry.key, groups);
+            }
+
+            ProviderEntry current = groups.get(entry.group);
+            if(current == null || entry.priority < current.priority) {
+                groups.put(entry.group, entry);
+            } else if(entry.priority == current.priority) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Providers " + current.className + " and "
+                        + entry.className + " have same key, group and priority ( key = " + entry.key + " , group = " + entry.group + " )");
+            }
+        }
+        return resolved;
+    }
+
+    private String registryClassName() {
+        String option = processingEnv.getOptions().get(OPTION_REGISTRY_CLASS);
+        if(option != null && !option.isEmpty()) {
+            return option;
+        }
+
+        Set<String> packages = new LinkedHashSet<>();
+        for (ProviderEntry entry : entries) {
+            packages.add(entry.packageName);
+        }
+        List<String> sortedPackages = new ArrayList<>(packages);
+        Collections.sort(sortedPackages);
+        return sortedPackages.get(0) + "." + DEFAULT_REGISTRY_NAME;
+    }
+
+    private void writeRegistry() {
+        Map<String, Map<String, ProviderEntry>> resolved = resolveEntries();
+
+        String qualifiedName = registryClassName();
+        int lastDot = qualifiedName.lastIndexOf('.');
+        String packageName = lastDot > 0 ? qualifiedName.substring(0, lastDot) : "";
+        String simpleName = qualifiedName.substring(lastDot + 1);
+
+        List<ProviderEntry> indexed = new ArrayList<>();
+        for (Map<String, ProviderEntry> groups : resolved.values()) {
+            indexed.addAll(groups.values());
+        }
+
+        StringBuilder source = new StringBuilder();
+        if(!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import sysdata.it.androidarchitecture.ProviderBinding;\n")
+                .append("import sysdata.it.androidarchitecture.ProviderRegistry;\n\n")
+                .append("/**\n * Generated by ").append(getClass().getSimpleName()).append(", do not edit.\n */\n")
+                .append("public final class ").append(simpleName).append(" implements ProviderRegistry {\n\n")
+                .append("    private final ProviderBinding[] bindings = new ProviderBinding[").append(indexed.size()).append("];\n\n")
+                .append("    @Override\n")
+                .append("    public ProviderBinding findBinding(String key, String group) {\n")
+                .append("        if (key == null || group == null) return null;\n\n")
+                .append("        switch (key) {\n");
+
+        int index = 0;
+        for (Map.Entry<String, Map<String, ProviderEntry>> keyEntry : resolved.entrySet()) {
+            source.append("            case ").append(literal(keyEntry.getKey())).append(":\n")
+                    .append("                switch (group) {\n");
+            for (ProviderEntry entry : keyEntry.getValue().values()) {
+                source.append("                    case ").append(literal(entry.group)).append(": return binding(").append(index++).append(");\n");
+            }
+            source.append("                }\n")
+                    .append("                return null;\n");
+        }
+
+        source.append("        }\n")
+                .append("        return null;\n")
+                .append("    }\n\n")
+                .append("    private ProviderBinding binding(int index) {\n")
+                .append("        ProviderBinding binding = bindings[index];\n")
+                .append("        if (binding == null) {\n")
+                .append("            synchronized (bindings) {\n")
+                .append("                binding = bindings[index];\n")
+                .append("                if (binding == null) {\n")
+                .append("                    binding = create(index);\n")
+                .append("                    bindings[index] = binding;\n")
+                .append("                }\n")
+                .append("            }\n")
+                .append("        }\n")
+                .append("        return binding;\n")
+                .append("    }\n\n")
+                .append("    private static ProviderBinding create(int index) {\n")
+                .append("        switch (index) {\n");
+
+        for (int i = 0; i < indexed.size(); i++) {
+            ProviderEntry entry = indexed.get(i);
+            source.append("            case ").append(i).append(": return ").append(bindingConstructor(entry)).append(";\n");
+        }
+
+        source.append("        }\n")
+                .append("        throw new IllegalArgumentException(\"Unknown provider index \" + index);\n")
+                .append("    }\n")
+                .append("}\n");
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName);
+            try (Writer writer = file.openWriter()) {
+                writer.write(source.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + qualifiedName + ": " + e.getMessage());
+        }
+    }
+
+    private String bindingConstructor(ProviderEntry entry) {
+        return "new ProviderBinding(new " + entry.className + "(), " + entry.priority + ", " + literal(entry.group)
+                + ", " + PROVIDER_SCOPE + "." + entry.scope + ")";
+    }
+
+    static String literal(String value) {
+        StringBuilder builder = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': builder.append("\\\""); break;
+                case '\\': builder.append("\\\\"); break;
+                case '\n': builder.append("\\n"); break;
+                case '\r': builder.append("\\r"); break;
+                case '\t': builder.append("\\t"); break;
+                default:
+                    if(c < 0x20 || c > 0x7e) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    /**
+     * Informations read from a single @ClassProvider
+     */
+    private static final class ProviderEntry {
+        final String className;
+        String packageName;
+        String key;
+        int priority;
+        String group;
+        String scope = DEFAULT_SCOPE;
+
+        ProviderEntry(String className) {
+            this.className = className;
+        }
+    }
+}
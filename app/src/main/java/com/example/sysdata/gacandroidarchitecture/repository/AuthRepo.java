@@ -1,7 +1,7 @@
 package com.example.sysdata.gacandroidarchitecture.repository;
 import com.example.sysdata.gacandroidarchitecture.model.UserLogged;
 
-import io.reactivex.Observable;
+import io.reactivex.Single;
 import sysdata.it.androidarchitecture.repository.Resource;
 
 public class AuthRepo{
@@ -19,7 +19,7 @@ public class AuthRepo{
         return INSTANCE;
     }
 
-    public Observable<Resource<UserLogged>> login(final String username, final String password) {
-        return Observable.just(Resource.success(new UserLogged(username)));
+    public Single<Resource<UserLogged>> login(final String username, final String password) {
+        return Single.just(Resource.success(new UserLogged(username)));
     }
 }
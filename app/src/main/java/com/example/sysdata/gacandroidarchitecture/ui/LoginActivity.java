@@ -8,9 +8,11 @@ import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
 
+import com.example.sysdata.gacandroidarchitecture.usecase.LoginUC;
 import com.example.sysdata.gacandroidarchitecture.viewmodel.LoginActivityViewModel;
 import com.example.sysdata.gacandroidarchitecture.R;
 
+import sysdata.it.androidarchitecture.repository.Deadline;
 import sysdata.it.androidarchitecture.repository.Resource;
 import sysdata.it.androidarchitecture.ui.activity.BaseArchitectureActivity;
 
@@ -44,7 +46,8 @@ public class LoginActivity extends BaseArchitectureActivity implements View.OnCl
         if(view == mProceedBtn){
             Editable username = mUsernameValue.getText();
             Editable password = mPasswordValue.getText();
-            mViewModel.execute(LoginActivityViewModel.Actions.LOGIN, username.toString(), password.toString());
+            mViewModel.execute(Deadline.after(LoginUC.TIMEOUT_MILLIS), LoginActivityViewModel.Actions.LOGIN,
+                    username.toString(), password.toString());
         }
     }
 
@@ -7,13 +7,16 @@ import com.example.sysdata.gacandroidarchitecture.model.UserLogged;
 
 import io.reactivex.Observable;
 import io.reactivex.Scheduler;
+import io.reactivex.Single;
+import sysdata.it.androidarchitecture.repository.DeadlineExceededException;
 import sysdata.it.androidarchitecture.repository.Resource;
-import sysdata.it.androidarchitecture.usecase.BaseUseCase;
+import sysdata.it.androidarchitecture.usecase.BaseSingleUseCase;
 
-public class LoginUC extends BaseUseCase<Resource<UserLogged>> {
+public class LoginUC extends BaseSingleUseCase<Resource<UserLogged>> {
 
     public static final String BUNDLE_USERNAME = "RetrieveLoginUC.Bundle.Username";
     public static final String BUNDLE_PASSWORD = "RetrieveLoginUC.Bundle.Password";
+    public static final long TIMEOUT_MILLIS = 15000;
 
     /**
      * Will setup the 'execution' Scheduler and the 'emission' Scheduler to use.
@@ -27,7 +30,7 @@ public class LoginUC extends BaseUseCase<Resource<UserLogged>> {
     }
 
     @Override
-    protected Observable<Resource<UserLogged>> buildUseCaseObservable(Bundle b) {
+    protected Single<Resource<UserLogged>> buildUseCaseSingle(Bundle b) {
         // parameters retrieved from ui
         String username = "";
         String password = "";
@@ -37,4 +40,10 @@ public class LoginUC extends BaseUseCase<Resource<UserLogged>> {
         }
         return AuthRepo.getInstance().login(username, password);
     }
+
+    @Override
+    protected Observable<Resource<UserLogged>> onDeadlineExceeded(Bundle b, DeadlineExceededException e) {
+        // the ui leaves the loading state with a failure instead of waiting forever
+        return Observable.just(Resource.error("Login timed out", e));
+    }
 }
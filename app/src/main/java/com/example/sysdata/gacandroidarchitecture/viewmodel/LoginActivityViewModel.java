@@ -29,7 +29,7 @@ public class LoginActivityViewModel extends BaseArchitectureViewModel {
     }
 
     @UCAction(actions = {Actions.LOGIN})
-    private final BaseUsecaseObserver getLoginUCObserver = BaseUsecaseObserver.buildOn(LoginUC.class).map(lvRetrieveLoginLiveData, userLoggedResource -> {
+    final BaseUsecaseObserver getLoginUCObserver = BaseUsecaseObserver.buildOn(LoginUC.class).map(lvRetrieveLoginLiveData, userLoggedResource -> {
         LoginScreenUiModel returnValue = new LoginScreenUiModel();
         if(userLoggedResource.status == Resource.Status.SUCCESS){
             UserLogged userLogged = userLoggedResource.data;